@@ -3,26 +3,30 @@ package com.kagelump.stshelp;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
-import java.io.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.kagelump.stshelp.AdviceScheduler.Priority;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Client for communicating with LLM APIs directly.
  * Processes game state and receives advice from AI.
+ *
+ * Configuration is loaded on a worker thread so that constructing
+ * this client adds nothing measurable to game startup. Requests are
+ * dispatched through an AdviceScheduler by priority.
  */
 public class AICoachClient {
 
-    private static final String DEFAULT_ENDPOINT = "https://api.openai.com/v1/chat/completions";
-    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
-    
-    private String apiKey;
-    private String endpoint;
-    private String model;
     private Gson gson;
-    private ExecutorService executor;
-    private LLMClient llmClient;
+    private AdviceScheduler scheduler;
+    private CompletableFuture<LLMClient> ready;
+    private CompletableFuture<ChoiceAdvisor> choiceAdvisor;
 
+    /**
+     * Called on the worker thread. Implementations must not touch game
+     * or UI state directly; post to an AdviceQueue instead.
+     */
     public interface AdviceCallback {
         void onAdviceReceived(String advice);
         void onError(String error);
@@ -30,71 +34,96 @@ public class AICoachClient {
 
     public AICoachClient() {
         this.gson = new Gson();
-        this.executor = Executors.newSingleThreadExecutor();
-        
-        // Load configuration
-        loadConfiguration();
-        
-        // Initialize LLM client
-        this.llmClient = new LLMClient(apiKey, endpoint, model);
+        this.scheduler = new AdviceScheduler();
+
+        // Load configuration and build the LLM client in the background
+        this.ready = CompletableFuture.supplyAsync(this::initialize,
+                scheduler.asExecutor(AdviceScheduler.LANE_STARTUP, Priority.INTERACTIVE_GENERAL));
+
+        // Map the card/relic knowledge index for instant choice advice
+        this.choiceAdvisor = CompletableFuture.supplyAsync(this::loadKnowledgeIndex,
+                scheduler.asExecutor(AdviceScheduler.LANE_STARTUP, Priority.INTERACTIVE_GENERAL));
     }
 
-    private void loadConfiguration() {
-        // Default values
-        this.apiKey = System.getenv("OPENAI_API_KEY");
-        this.endpoint = System.getenv("OPENAI_ENDPOINT");
-        this.model = System.getenv("OPENAI_MODEL");
-        
-        // Try to load from config file
-        File configFile = new File("stshelp_config.json");
-        if (configFile.exists()) {
-            try (FileReader reader = new FileReader(configFile)) {
-                JsonObject config = gson.fromJson(reader, JsonObject.class);
-                
-                // Override with config file values if present
-                if (config.has("openai_api_key") && (apiKey == null || apiKey.isEmpty())) {
-                    apiKey = config.get("openai_api_key").getAsString();
-                }
-                if (config.has("openai_endpoint") && (endpoint == null || endpoint.isEmpty())) {
-                    endpoint = config.get("openai_endpoint").getAsString();
-                }
-                if (config.has("model") && (model == null || model.isEmpty())) {
-                    model = config.get("model").getAsString();
-                }
-            } catch (Exception e) {
-                STSHelpMod.logger.warn("Failed to load config file", e);
-            }
-        }
-        
-        // Set defaults if still null
-        if (endpoint == null || endpoint.isEmpty()) {
-            endpoint = DEFAULT_ENDPOINT;
+    private LLMClient initialize() {
+        long start = System.nanoTime();
+        CoachSettings settings = CoachSettings.load(gson);
+        LLMClient client = new LLMClient(settings);
+
+        // Log configuration (without sensitive data)
+        STSHelpMod.logger.info("LLM Configuration - Model: " + settings.getModel()
+                + " (loaded in " + elapsedMillis(start) + " ms)");
+        return client;
+    }
+
+    private ChoiceAdvisor loadKnowledgeIndex() {
+        long start = System.nanoTime();
+        try {
+            KnowledgeIndex index = KnowledgeIndex.load();
+            STSHelpMod.logger.info("Knowledge index mapped: " + index.size() + " entries in "
+                    + elapsedMillis(start) + " ms");
+            return new ChoiceAdvisor(index);
+        } catch (Exception e) {
+            STSHelpMod.logger.warn("Knowledge index unavailable, choices will go to the LLM", e);
+            return null;
         }
-        if (model == null || model.isEmpty()) {
-            model = DEFAULT_MODEL;
+    }
+
+    /**
+     * Answer a card reward, shop or boss relic choice from the local index.
+     * Never blocks: returns null if the index isn't loaded yet, or if the
+     * state has no rated choices, in which case the caller should ask the LLM.
+     */
+    public String getQuickAdvice(JsonObject gameState) {
+        ChoiceAdvisor advisor = choiceAdvisor.getNow(null);
+        if (advisor == null) {
+            return null;
         }
-        
-        // Log configuration (without sensitive data)
-        STSHelpMod.logger.info("LLM Configuration - Model: " + model);
+        return advisor.advise(gameState);
+    }
+
+    /**
+     * Open a connection to the endpoint in the background once the game has
+     * finished loading (see LLMClient.warmUp), so the first Help click
+     * doesn't pay for the TLS handshake. Skipped when no API key is set,
+     * since advice requests never reach the endpoint then.
+     */
+    public void warmUp() {
+        ready.thenAccept(client -> {
+            if (!client.hasApiKey()) {
+                STSHelpMod.logger.info("No API key configured, skipping LLM client warm-up");
+                return;
+            }
+            scheduler.submit(client.getEndpoint(), Priority.BACKGROUND, () -> {
+                long start = System.nanoTime();
+                if (client.warmUp()) {
+                    STSHelpMod.logger.info("LLM client warmed up in " + elapsedMillis(start) + " ms");
+                }
+            });
+        });
     }
 
     public void requestAdvice(String gameStateJson, AdviceCallback callback) {
-        // Run in background thread to avoid blocking the game
-        executor.submit(() -> {
+        requestAdvice(gameStateJson, Priority.INTERACTIVE_GENERAL, callback);
+    }
+
+    public void requestAdvice(String gameStateJson, Priority priority, AdviceCallback callback) {
+        // Queue once configuration is ready; an early click waits here rather than failing
+        ready.thenAccept(llmClient -> scheduler.submit(llmClient.getEndpoint(), priority, () -> {
             try {
                 // Parse game state
                 JsonObject gameState = gson.fromJson(gameStateJson, JsonObject.class);
-                
+
                 // Check for error in game state
                 if (gameState.has("error")) {
                     callback.onAdviceReceived(gameState.get("error").getAsString());
                     return;
                 }
-                
+
                 // Create prompt from game state
                 String prompt = llmClient.createPrompt(gameState);
                 STSHelpMod.logger.info("Created prompt for LLM");
-                
+
                 // Get advice from LLM
                 String advice = llmClient.getAdvice(prompt);
                 callback.onAdviceReceived(advice);
@@ -102,12 +131,28 @@ public class AICoachClient {
                 STSHelpMod.logger.error("Error requesting advice", e);
                 callback.onError("Error: " + e.getMessage());
             }
+        })).exceptionally(e -> {
+            callback.onError("Error: " + e.getMessage());
+            return null;
         });
     }
 
+    /**
+     * Executor for low-priority work that should never hold up a Help click.
+     * Tasks given to the returned executor run one at a time, in submission order.
+     */
+    public Executor backgroundExecutor(String key) {
+        return scheduler.serialExecutor(key, Priority.BACKGROUND);
+    }
+
+    static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
     public void shutdown() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
+        if (scheduler != null) {
+            STSHelpMod.logger.info(scheduler.getWaitStats());
+            scheduler.shutdown();
         }
     }
 }
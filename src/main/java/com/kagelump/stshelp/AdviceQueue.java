@@ -0,0 +1,83 @@
+package com.kagelump.stshelp;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hands advice results from worker threads to the game thread.
+ * Workers post updates from any thread; the game thread drains them in
+ * receivePostUpdate with a per-frame budget so a burst of updates can't
+ * stall a frame. The queue is lock-free, and draining on the game thread
+ * means AdviceScreen is only ever touched from that thread.
+ *
+ * Requests can run concurrently and finish out of order, so each one is
+ * tagged with a generation from {@link #beginRequest()}; results from any
+ * request older than the latest are dropped rather than shown.
+ */
+public class AdviceQueue {
+
+    public static final int DEFAULT_FRAME_BUDGET = 8;
+
+    private enum Kind { COMPLETE, ERROR }
+
+    private static final class Update {
+        final long generation;
+        final Kind kind;
+        final String text;
+
+        Update(long generation, Kind kind, String text) {
+            this.generation = generation;
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Update> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong latestGeneration = new AtomicLong();
+
+    /**
+     * Start a new request. From now on, results posted for earlier
+     * generations are discarded. Returns the new request's generation.
+     */
+    public long beginRequest() {
+        return latestGeneration.incrementAndGet();
+    }
+
+    /** Post the complete advice text, replacing anything shown so far. */
+    public void postComplete(long generation, String advice) {
+        queue.offer(new Update(generation, Kind.COMPLETE, advice));
+    }
+
+    public void postError(long generation, String error) {
+        queue.offer(new Update(generation, Kind.ERROR, error));
+    }
+
+    /**
+     * Process at most {@code budget} pending updates, passing the text of
+     * current ones to {@code display} and dropping stale ones.
+     * Must be called on the game thread. Returns the number displayed.
+     */
+    public int drain(Consumer<String> display, int budget) {
+        int displayed = 0;
+        int polled = 0;
+        Update update;
+        while (polled < budget && (update = queue.poll()) != null) {
+            polled++;
+            if (update.generation != latestGeneration.get()) {
+                STSHelpMod.logger.info("Dropping stale advice from request " + update.generation);
+                continue;
+            }
+            switch (update.kind) {
+                case COMPLETE:
+                    display.accept(update.text);
+                    break;
+                case ERROR:
+                    display.accept("Error: " + update.text);
+                    break;
+            }
+            displayed++;
+        }
+        return displayed;
+    }
+}
@@ -0,0 +1,243 @@
+package com.kagelump.stshelp;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small priority scheduler for LLM work.
+ * Jobs are grouped into lanes: one per LLM endpoint (keyed by its URL), plus
+ * local lanes such as {@link #LANE_STARTUP}. Pending jobs are dispatched in
+ * priority order (then FIFO), with at most {@code maxPerLane} jobs running in
+ * any one lane. Background jobs may use all but one of those slots, so an
+ * interactive request never waits behind background work that is already
+ * running. In-flight HTTP calls can't be interrupted, so preemption happens
+ * at dispatch time.
+ */
+public class AdviceScheduler {
+
+    public static final int DEFAULT_MAX_PER_LANE = 2;
+
+    /** Lane for one-off startup work: loading config and the knowledge index. */
+    public static final String LANE_STARTUP = "startup";
+
+    public enum Priority {
+        INTERACTIVE_COMBAT,
+        INTERACTIVE_GENERAL,
+        BACKGROUND
+    }
+
+    private static final class Job implements Comparable<Job> {
+        final String lane;
+        final Priority priority;
+        final Runnable task;
+        final long seq;
+        final long enqueuedAt;
+
+        Job(String lane, Priority priority, Runnable task, long seq) {
+            this.lane = lane;
+            this.priority = priority;
+            this.task = task;
+            this.seq = seq;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int cmp = priority.compareTo(other.priority);
+            return cmp != 0 ? cmp : Long.compare(seq, other.seq);
+        }
+    }
+
+    /** Queue wait statistics for one priority class. */
+    private static final class WaitStats {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long waitNanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(waitNanos);
+            long max;
+            while (waitNanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, waitNanos)) {
+                // retry
+            }
+        }
+    }
+
+    private final int maxPerLane;
+    private final ExecutorService workers;
+    private final PriorityQueue<Job> pending = new PriorityQueue<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private final WaitStats[] waitStats = new WaitStats[Priority.values().length];
+    private long nextSeq = 0;
+    private boolean shutdown = false;
+
+    public AdviceScheduler() {
+        this(DEFAULT_MAX_PER_LANE);
+    }
+
+    /**
+     * @param maxPerLane concurrent jobs per lane; at least 2, since one slot
+     *                   is always kept free of background work
+     */
+    public AdviceScheduler(int maxPerLane) {
+        if (maxPerLane < 2) {
+            throw new IllegalArgumentException("maxPerLane must be at least 2, was " + maxPerLane);
+        }
+        this.maxPerLane = maxPerLane;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "STSHelp-Worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < waitStats.length; i++) {
+            waitStats[i] = new WaitStats();
+        }
+    }
+
+    /**
+     * Queue a task in the given lane. The lane is only used as a key for
+     * the concurrency cap.
+     */
+    public synchronized void submit(String lane, Priority priority, Runnable task) {
+        if (shutdown) {
+            STSHelpMod.logger.warn("Scheduler is shut down, dropping " + priority + " task");
+            return;
+        }
+        pending.add(new Job(lane, priority, task, nextSeq++));
+        dispatch();
+    }
+
+    /** Adapts this scheduler to an Executor for a fixed lane and priority. */
+    public Executor asExecutor(String lane, Priority priority) {
+        return task -> submit(lane, priority, task);
+    }
+
+    /**
+     * Like {@link #asExecutor}, but the returned executor runs its tasks one
+     * at a time, in submission order. Each task is only queued once the
+     * previous one has finished, so the order doesn't depend on the lane's
+     * cap or on other jobs in the lane.
+     */
+    public Executor serialExecutor(String lane, Priority priority) {
+        return new SerialExecutor(lane, priority);
+    }
+
+    private final class SerialExecutor implements Executor {
+        private final String lane;
+        private final Priority priority;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean active = false;
+
+        SerialExecutor(String lane, Priority priority) {
+            this.lane = lane;
+            this.priority = priority;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if (!active) {
+                active = true;
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            Runnable next = tasks.poll();
+            if (next == null) {
+                active = false;
+                return;
+            }
+            submit(lane, priority, () -> {
+                try {
+                    next.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+        }
+    }
+
+    // Start every pending job that fits under its lane's cap, in priority order.
+    private synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        PriorityQueue<Job> deferred = new PriorityQueue<>();
+        Job job;
+        while ((job = pending.poll()) != null) {
+            int active = running.getOrDefault(job.lane, 0);
+            if (active >= slotsFor(job.priority)) {
+                deferred.add(job);
+                continue;
+            }
+            running.put(job.lane, active + 1);
+            start(job);
+        }
+        pending.addAll(deferred);
+    }
+
+    private int slotsFor(Priority priority) {
+        return priority == Priority.BACKGROUND ? maxPerLane - 1 : maxPerLane;
+    }
+
+    private void start(Job job) {
+        long waitNanos = System.nanoTime() - job.enqueuedAt;
+        waitStats[job.priority.ordinal()].record(waitNanos);
+        STSHelpMod.logger.debug(job.priority + " task waited " + (waitNanos / 1_000_000L) + " ms in queue");
+
+        workers.execute(() -> {
+            try {
+                job.task.run();
+            } catch (Exception e) {
+                STSHelpMod.logger.error("Scheduled task failed", e);
+            } finally {
+                finished(job);
+            }
+        });
+    }
+
+    private synchronized void finished(Job job) {
+        int active = running.getOrDefault(job.lane, 1) - 1;
+        if (active <= 0) {
+            running.remove(job.lane);
+        } else {
+            running.put(job.lane, active);
+        }
+        dispatch();
+    }
+
+    /** Summary of queue wait time per priority class, for logging. */
+    public String getWaitStats() {
+        StringBuilder sb = new StringBuilder("Queue wait");
+        for (Priority priority : Priority.values()) {
+            WaitStats stats = waitStats[priority.ordinal()];
+            long count = stats.count.get();
+            long avgMs = count > 0 ? stats.totalNanos.get() / count / 1_000_000L : 0;
+            sb.append(" - ").append(priority)
+              .append(": n=").append(count)
+              .append(", avg=").append(avgMs).append(" ms")
+              .append(", max=").append(stats.maxNanos.get() / 1_000_000L).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        pending.clear();
+        workers.shutdown();
+    }
+}
@@ -9,6 +9,10 @@ import com.megacrit.cardcrawl.helpers.ImageMaster;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.screens.mainMenu.MainMenuScreen;
 
+/**
+ * In-game popup for displaying advice.
+ * Not thread-safe: only touch from the game thread (see AdviceQueue).
+ */
 public class AdviceScreen {
     
     private static final float SCREEN_X = Settings.WIDTH / 4.0f;
@@ -0,0 +1,199 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Answers card reward, shop and boss relic choices from the local
+ * KnowledgeIndex, without a network call. Each option's rating gets a
+ * fixed bonus for every distinct synergy tag it shares with the deck, so
+ * one big archetype can't push every option to the same score. In the
+ * shop, options the player can't afford are ranked below the rest.
+ */
+public class ChoiceAdvisor {
+
+    private static final int SYNERGY_BONUS_PER_TAG = 5;
+    private static final int MAX_SYNERGY_BONUS = 10;
+    private static final int SKIP_THRESHOLD = 50;
+
+    private final KnowledgeIndex index;
+
+    private static final class Option implements Comparable<Option> {
+        final String name;
+        final int rating;
+        final int bonus;
+        final List<String> sharedTags;
+        final boolean rated;
+        final boolean affordable;
+
+        Option(String name, int rating, int bonus, List<String> sharedTags, boolean rated, boolean affordable) {
+            this.name = name;
+            this.rating = rating;
+            this.bonus = bonus;
+            this.sharedTags = sharedTags;
+            this.rated = rated;
+            this.affordable = affordable;
+        }
+
+        int score() {
+            return rating + bonus;
+        }
+
+        @Override
+        public int compareTo(Option other) {
+            if (affordable != other.affordable) {
+                return affordable ? -1 : 1;
+            }
+            return Integer.compare(other.score(), score());
+        }
+    }
+
+    public ChoiceAdvisor(KnowledgeIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Rank the offered choices in the given game state.
+     * Returns null if the state has no choices or none of them are rated.
+     */
+    public String advise(JsonObject gameState) {
+        if (!gameState.has("choices")) {
+            return null;
+        }
+        JsonObject choices = gameState.getAsJsonObject("choices");
+        String character = characterOf(gameState);
+        Set<String> deckTags = deckTags(gameState, character);
+        int gold = goldOf(gameState);
+
+        List<Option> options = new ArrayList<>();
+        boolean anyRated = false;
+        anyRated |= addOptions(options, choices.getAsJsonArray("cards"), KnowledgeIndex.KIND_CARD, character, deckTags, gold);
+        anyRated |= addOptions(options, choices.getAsJsonArray("relics"), KnowledgeIndex.KIND_RELIC, character, deckTags, gold);
+        if (!anyRated) {
+            return null;
+        }
+        Collections.sort(options);
+
+        StringBuilder advice = new StringBuilder();
+        advice.append("Quick ratings (").append(describeScreen(choices)).append("):\n");
+        for (int i = 0; i < options.size(); i++) {
+            Option option = options.get(i);
+            advice.append(i + 1).append(". ").append(option.name);
+            if (!option.rated) {
+                advice.append(" - unrated");
+            } else {
+                advice.append(" - ").append(option.score());
+                if (option.bonus > 0) {
+                    advice.append(" (+").append(option.bonus).append(" synergy: ")
+                          .append(String.join(", ", option.sharedTags)).append(")");
+                }
+            }
+            if (!option.affordable) {
+                advice.append(" - can't afford");
+            }
+            advice.append("\n");
+        }
+        if (!options.get(0).affordable) {
+            advice.append("Nothing here is affordable with ").append(gold).append(" gold.\n");
+        } else if (!"boss_relic".equals(screenOf(choices)) && options.get(0).score() < SKIP_THRESHOLD) {
+            advice.append("Nothing here rates well; consider skipping.\n");
+        }
+        advice.append("\nClick Help again for detailed reasoning.");
+        return advice.toString();
+    }
+
+    private boolean addOptions(List<Option> options, JsonArray items, String kind,
+                               String character, Set<String> deckTags, int gold) {
+        if (items == null) {
+            return false;
+        }
+        boolean anyRated = false;
+        for (JsonElement element : items) {
+            JsonObject item = element.getAsJsonObject();
+            String name = item.get("name").getAsString();
+            boolean affordable = true;
+            if (item.has("price")) {
+                int price = item.get("price").getAsInt();
+                name += " (" + price + " gold)";
+                affordable = gold < 0 || price <= gold;
+            }
+
+            KnowledgeIndex.Entry entry = index.lookup(character, kind, item.get("id").getAsString());
+            if (entry == null) {
+                options.add(new Option(name, 0, 0, Collections.<String>emptyList(), false, affordable));
+                continue;
+            }
+            anyRated = true;
+
+            List<String> shared = new ArrayList<>();
+            for (String tag : entry.tags) {
+                if (deckTags.contains(tag)) {
+                    shared.add(tag);
+                }
+            }
+            int bonus = Math.min(shared.size() * SYNERGY_BONUS_PER_TAG, MAX_SYNERGY_BONUS);
+            options.add(new Option(name, entry.rating, bonus, shared, true, affordable));
+        }
+        return anyRated;
+    }
+
+    private Set<String> deckTags(JsonObject gameState, String character) {
+        Set<String> tags = new HashSet<>();
+        if (!gameState.has("deck_ids")) {
+            return tags;
+        }
+        for (JsonElement id : gameState.getAsJsonArray("deck_ids")) {
+            KnowledgeIndex.Entry entry = index.lookup(character, KnowledgeIndex.KIND_CARD, id.getAsString());
+            if (entry == null) {
+                continue;
+            }
+            Collections.addAll(tags, entry.tags);
+        }
+        return tags;
+    }
+
+    private static String characterOf(JsonObject gameState) {
+        if (gameState.has("player")) {
+            JsonObject player = gameState.getAsJsonObject("player");
+            if (player.has("class")) {
+                return player.get("class").getAsString();
+            }
+        }
+        return null;
+    }
+
+    // Player gold, or -1 if the state doesn't say (every option counts as affordable)
+    private static int goldOf(JsonObject gameState) {
+        if (gameState.has("player")) {
+            JsonObject player = gameState.getAsJsonObject("player");
+            if (player.has("gold")) {
+                return player.get("gold").getAsInt();
+            }
+        }
+        return -1;
+    }
+
+    private static String screenOf(JsonObject choices) {
+        return choices.has("screen") ? choices.get("screen").getAsString() : "";
+    }
+
+    private static String describeScreen(JsonObject choices) {
+        switch (screenOf(choices)) {
+            case "card_reward":
+                return "card reward";
+            case "shop":
+                return "shop";
+            case "boss_relic":
+                return "boss relic";
+            default:
+                return "choices";
+        }
+    }
+}
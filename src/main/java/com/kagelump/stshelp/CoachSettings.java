@@ -0,0 +1,86 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.FileReader;
+
+/**
+ * Immutable LLM settings, resolved once from the environment,
+ * stshelp_config.json and defaults (in that order of priority).
+ */
+public final class CoachSettings {
+
+    public static final String CONFIG_FILE = "stshelp_config.json";
+    private static final String DEFAULT_ENDPOINT = "https://api.openai.com/v1/chat/completions";
+    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+
+    private final String apiKey;
+    private final String endpoint;
+    private final String model;
+
+    private CoachSettings(String apiKey, String endpoint, String model) {
+        this.apiKey = apiKey;
+        this.endpoint = endpoint;
+        this.model = model;
+    }
+
+    /**
+     * Read settings from the environment and config file.
+     * Performs file I/O, so call this off the game thread.
+     */
+    public static CoachSettings load(Gson gson) {
+        // Default values
+        String apiKey = System.getenv("OPENAI_API_KEY");
+        String endpoint = System.getenv("OPENAI_ENDPOINT");
+        String model = System.getenv("OPENAI_MODEL");
+
+        // Try to load from config file
+        File configFile = new File(CONFIG_FILE);
+        if (configFile.exists()) {
+            try (FileReader reader = new FileReader(configFile)) {
+                JsonObject config = gson.fromJson(reader, JsonObject.class);
+
+                // Override with config file values if present
+                if (config.has("openai_api_key") && isEmpty(apiKey)) {
+                    apiKey = config.get("openai_api_key").getAsString();
+                }
+                if (config.has("openai_endpoint") && isEmpty(endpoint)) {
+                    endpoint = config.get("openai_endpoint").getAsString();
+                }
+                if (config.has("model") && isEmpty(model)) {
+                    model = config.get("model").getAsString();
+                }
+            } catch (Exception e) {
+                STSHelpMod.logger.warn("Failed to load config file", e);
+            }
+        }
+
+        // Set defaults if still null
+        if (isEmpty(endpoint)) {
+            endpoint = DEFAULT_ENDPOINT;
+        }
+        if (isEmpty(model)) {
+            model = DEFAULT_MODEL;
+        }
+
+        return new CoachSettings(apiKey, endpoint, model);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getModel() {
+        return model;
+    }
+}
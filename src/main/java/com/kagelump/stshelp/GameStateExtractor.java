@@ -1,119 +1,173 @@
 package com.kagelump.stshelp;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.megacrit.cardcrawl.cards.AbstractCard;
-import com.megacrit.cardcrawl.characters.AbstractPlayer;
-import com.megacrit.cardcrawl.core.CardCrawlGame;
-import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
-import com.megacrit.cardcrawl.monsters.AbstractMonster;
-import com.megacrit.cardcrawl.relics.AbstractRelic;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Extracts essential game state information for AI processing.
- * Strips down to: HP, Deck, Relics, Enemy Intent
+ * Strips down to: HP, Deck, Relics, Enemy Intent, and offered choices
+ * on card reward, shop and boss relic screens.
  */
 public class GameStateExtractor {
 
     private Gson gson;
+    private GameStateSource source;
 
     public GameStateExtractor() {
+        this(new LiveGameStateSource());
+    }
+
+    public GameStateExtractor(GameStateSource source) {
         this.gson = new Gson();
+        this.source = source;
     }
 
     public String extractState() {
+        return gson.toJson(extractStateJson());
+    }
+
+    public JsonObject extractStateJson() {
         JsonObject state = new JsonObject();
 
         // Check if we're in a run
-        if (AbstractDungeon.player == null) {
+        if (!source.hasActiveRun()) {
             state.addProperty("error", "No active game");
-            return gson.toJson(state);
+            return state;
         }
 
-        AbstractPlayer player = AbstractDungeon.player;
-
         // Extract player info
         JsonObject playerInfo = new JsonObject();
-        playerInfo.addProperty("current_hp", player.currentHealth);
-        playerInfo.addProperty("max_hp", player.maxHealth);
-        playerInfo.addProperty("current_energy", player.energy.energy);
-        playerInfo.addProperty("gold", player.gold);
-        playerInfo.addProperty("character", player.name);
+        playerInfo.addProperty("current_hp", source.getCurrentHp());
+        playerInfo.addProperty("max_hp", source.getMaxHp());
+        playerInfo.addProperty("current_energy", source.getEnergy());
+        playerInfo.addProperty("gold", source.getGold());
+        playerInfo.addProperty("character", source.getCharacterName());
+        if (source.getCharacterClass() != null) {
+            playerInfo.addProperty("class", source.getCharacterClass());
+        }
         state.add("player", playerInfo);
 
         // Extract deck
-        List<String> deck = new ArrayList<>();
-        for (AbstractCard card : player.masterDeck.group) {
-            deck.add(card.name + (card.upgraded ? "+" : ""));
-        }
-        state.add("deck", gson.toJsonTree(deck));
+        List<GameStateSource.Card> deckCards = source.getDeck();
+        state.add("deck", gson.toJsonTree(cardNames(deckCards)));
 
         // Extract relics
         List<String> relics = new ArrayList<>();
-        for (AbstractRelic relic : player.relics) {
+        for (GameStateSource.Relic relic : source.getRelics()) {
             relics.add(relic.name);
         }
         state.add("relics", gson.toJsonTree(relics));
 
         // Extract combat state if in combat
-        if (AbstractDungeon.isPlayerInDungeon() && AbstractDungeon.getCurrRoom() != null) {
+        if (source.isInCombat()) {
             JsonObject combatInfo = new JsonObject();
-            combatInfo.addProperty("floor", AbstractDungeon.floorNum);
-            combatInfo.addProperty("act", AbstractDungeon.actNum);
-            
-            // Extract hand
-            if (player.hand != null && !player.hand.isEmpty()) {
-                List<String> hand = new ArrayList<>();
-                for (AbstractCard card : player.hand.group) {
-                    hand.add(card.name + (card.upgraded ? "+" : ""));
-                }
-                combatInfo.add("hand", gson.toJsonTree(hand));
-            }
+            combatInfo.addProperty("floor", source.getFloor());
+            combatInfo.addProperty("act", source.getAct());
 
-            // Extract draw pile count
-            if (player.drawPile != null) {
-                combatInfo.addProperty("draw_pile_size", player.drawPile.size());
+            // Extract hand
+            List<GameStateSource.Card> hand = source.getHand();
+            if (!hand.isEmpty()) {
+                combatInfo.add("hand", gson.toJsonTree(cardNames(hand)));
             }
 
-            // Extract discard pile count
-            if (player.discardPile != null) {
-                combatInfo.addProperty("discard_pile_size", player.discardPile.size());
-            }
+            // Extract draw and discard pile counts
+            combatInfo.addProperty("draw_pile_size", source.getDrawPileSize());
+            combatInfo.addProperty("discard_pile_size", source.getDiscardPileSize());
 
             // Extract enemy information
-            if (AbstractDungeon.getMonsters() != null && !AbstractDungeon.getMonsters().areMonstersBasicallyDead()) {
-                List<JsonObject> enemies = new ArrayList<>();
-                for (AbstractMonster monster : AbstractDungeon.getMonsters().monsters) {
-                    if (!monster.isDead && !monster.escaped) {
-                        JsonObject enemyInfo = new JsonObject();
-                        enemyInfo.addProperty("name", monster.name);
-                        enemyInfo.addProperty("current_hp", monster.currentHealth);
-                        enemyInfo.addProperty("max_hp", monster.maxHealth);
-                        
-                        // Get intent (this is key for AI advice)
-                        if (monster.intent != null) {
-                            enemyInfo.addProperty("intent", monster.intent.toString());
-                            if (monster.intentDmg > 0) {
-                                enemyInfo.addProperty("intent_damage", monster.intentDmg);
-                            }
+            List<GameStateSource.Enemy> enemies = source.getEnemies();
+            if (!enemies.isEmpty()) {
+                JsonArray enemyList = new JsonArray();
+                for (GameStateSource.Enemy enemy : enemies) {
+                    JsonObject enemyInfo = new JsonObject();
+                    enemyInfo.addProperty("name", enemy.name);
+                    enemyInfo.addProperty("current_hp", enemy.currentHp);
+                    enemyInfo.addProperty("max_hp", enemy.maxHp);
+
+                    // Get intent (this is key for AI advice)
+                    if (enemy.intent != null) {
+                        enemyInfo.addProperty("intent", enemy.intent);
+                        if (enemy.intentDamage > 0) {
+                            enemyInfo.addProperty("intent_damage", enemy.intentDamage);
                         }
-                        
-                        enemies.add(enemyInfo);
                     }
+                    // Powers are left out until the prompt is changed to use them
+
+                    enemyList.add(enemyInfo);
                 }
-                combatInfo.add("enemies", gson.toJsonTree(enemies));
+                combatInfo.add("enemies", enemyList);
             }
 
             state.add("combat", combatInfo);
         }
 
+        // Extract offered choices on reward, shop and boss relic screens
+        JsonObject choices = extractChoices();
+        if (choices != null) {
+            state.add("choices", choices);
+
+            // Card IDs let the knowledge index match synergies with the deck
+            List<String> deckIds = new ArrayList<>();
+            for (GameStateSource.Card card : deckCards) {
+                deckIds.add(card.id);
+            }
+            state.add("deck_ids", gson.toJsonTree(deckIds));
+        }
+
         // Add current floor and act even outside combat
-        state.addProperty("floor", AbstractDungeon.floorNum);
-        state.addProperty("act", AbstractDungeon.actNum);
+        state.addProperty("floor", source.getFloor());
+        state.addProperty("act", source.getAct());
+
+        return state;
+    }
 
-        return gson.toJson(state);
+    /**
+     * Extract the cards/relics on offer if a choice screen is open, else null.
+     */
+    private JsonObject extractChoices() {
+        String screen = source.getChoiceScreen();
+        if (screen == null) {
+            return null;
+        }
+
+        JsonArray cards = new JsonArray();
+        for (GameStateSource.Card card : source.getOfferedCards()) {
+            JsonObject cardInfo = new JsonObject();
+            cardInfo.addProperty("id", card.id);
+            cardInfo.addProperty("name", card.displayName());
+            if (card.price >= 0) {
+                cardInfo.addProperty("price", card.price);
+            }
+            cards.add(cardInfo);
+        }
+
+        JsonArray relics = new JsonArray();
+        for (GameStateSource.Relic relic : source.getOfferedRelics()) {
+            JsonObject relicInfo = new JsonObject();
+            relicInfo.addProperty("id", relic.id);
+            relicInfo.addProperty("name", relic.name);
+            relics.add(relicInfo);
+        }
+
+        if (cards.size() == 0 && relics.size() == 0) {
+            return null;
+        }
+        JsonObject choices = new JsonObject();
+        choices.addProperty("screen", screen);
+        choices.add("cards", cards);
+        choices.add("relics", relics);
+        return choices;
+    }
+
+    private static List<String> cardNames(List<GameStateSource.Card> cards) {
+        List<String> names = new ArrayList<>(cards.size());
+        for (GameStateSource.Card card : cards) {
+            names.add(card.displayName());
+        }
+        return names;
     }
 }
@@ -0,0 +1,116 @@
+package com.kagelump.stshelp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of the game state that GameStateExtractor and
+ * RunSnapshot work from. LiveGameStateSource reads the running game;
+ * SyntheticGameStateSource generates seeded states so the extraction and
+ * prompt pipeline can be exercised without launching the game.
+ */
+public interface GameStateSource {
+
+    final class Card {
+        public final String id;
+        public final String name;
+        public final boolean upgraded;
+        /** Shop price, or -1 if the card is not for sale. */
+        public final int price;
+
+        public Card(String id, String name, boolean upgraded, int price) {
+            this.id = id;
+            this.name = name;
+            this.upgraded = upgraded;
+            this.price = price;
+        }
+
+        public String displayName() {
+            return name + (upgraded ? "+" : "");
+        }
+    }
+
+    final class Relic {
+        public final String id;
+        public final String name;
+
+        public Relic(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    final class Enemy {
+        public final String name;
+        public final int currentHp;
+        public final int maxHp;
+        /** Intent name, or null if unknown. */
+        public final String intent;
+        public final int intentDamage;
+        /** Powers as "Name amount", e.g. "Strength 3". Not sent to the model yet. */
+        public final List<String> powers;
+
+        public Enemy(String name, int currentHp, int maxHp, String intent, int intentDamage, List<String> powers) {
+            this.name = name;
+            this.currentHp = currentHp;
+            this.maxHp = maxHp;
+            this.intent = intent;
+            this.intentDamage = intentDamage;
+            this.powers = Collections.unmodifiableList(powers);
+        }
+    }
+
+    boolean hasActiveRun();
+
+    String getCharacterName();
+
+    /** Character class name, e.g. IRONCLAD, or null if unknown. */
+    String getCharacterClass();
+
+    int getCurrentHp();
+
+    int getMaxHp();
+
+    int getEnergy();
+
+    int getGold();
+
+    int getFloor();
+
+    int getAct();
+
+    /** Simple class name of the current room, e.g. MonsterRoomElite. */
+    String getRoomType();
+
+    /** Key of the most recent combat encounter, or null. */
+    String getLastEncounter();
+
+    List<Card> getDeck();
+
+    List<Relic> getRelics();
+
+    boolean isInCombat();
+
+    List<Card> getHand();
+
+    int getDrawPileSize();
+
+    int getDiscardPileSize();
+
+    /** Enemies still in the fight. */
+    List<Enemy> getEnemies();
+
+    /** "card_reward", "shop" or "boss_relic" if a choice screen is open, else null. */
+    String getChoiceScreen();
+
+    List<Card> getOfferedCards();
+
+    /**
+     * Identifies the card reward on screen, or null if none is open. The
+     * same reward reopened (after viewing the deck, say) returns the same
+     * object; compare by identity.
+     */
+    Object getCardReward();
+
+    List<Relic> getOfferedRelics();
+}
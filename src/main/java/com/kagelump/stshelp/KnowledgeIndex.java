@@ -0,0 +1,210 @@
+package com.kagelump.stshelp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only, memory-mapped index of card and relic ratings.
+ * Built from CSV/JSON by KnowledgeIndexBuilder.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int magic, int version, int count
+ *   int[count] record offsets, sorted by key (unsigned UTF-8 byte order)
+ *   records: short keyLen, key, byte rating, short tagsLen, tags
+ * </pre>
+ * Keys are {@code CHARACTER|KIND|id}, e.g. {@code IRONCLAD|CARD|Offering}.
+ * Entries shared by every character use {@link #ANY_CHARACTER}.
+ */
+public class KnowledgeIndex {
+
+    public static final int MAGIC = 0x5354534B; // "STSK"
+    public static final int VERSION = 1;
+    public static final String ANY_CHARACTER = "ANY";
+    public static final String KIND_CARD = "CARD";
+    public static final String KIND_RELIC = "RELIC";
+
+    public static final String OVERRIDE_FILE = "stshelp_knowledge.idx";
+    public static final String BUNDLED_RESOURCE = "/stshelp/knowledge.idx";
+
+    private static final int HEADER_SIZE = 12;
+
+    /** A single rating looked up from the index. */
+    public static final class Entry {
+        public final int rating;
+        public final String[] tags;
+
+        Entry(int rating, String[] tags) {
+            this.rating = rating;
+            this.tags = tags;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    KnowledgeIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a knowledge index");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported knowledge index version " + version);
+        }
+        this.count = buffer.getInt(8);
+    }
+
+    /**
+     * Map the index from stshelp_knowledge.idx in the game directory if
+     * present, otherwise from the copy bundled in the mod jar.
+     * Performs file I/O, so call this off the game thread.
+     */
+    public static KnowledgeIndex load() throws IOException {
+        File file = new File(OVERRIDE_FILE);
+        if (!file.exists()) {
+            file = extractBundled();
+        }
+        return map(file);
+    }
+
+    public static KnowledgeIndex map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new KnowledgeIndex(mapped);
+        }
+    }
+
+    // Resources inside a jar can't be mapped directly, so copy them out first.
+    private static File extractBundled() throws IOException {
+        try (InputStream in = KnowledgeIndex.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Bundled knowledge index not found: " + BUNDLED_RESOURCE);
+            }
+            return extract(in, new File(System.getProperty("java.io.tmpdir")));
+        }
+    }
+
+    /**
+     * Copy an index into {@code dir} under a name derived from the format
+     * version and a checksum of its contents, and return that file. An
+     * existing copy is reused, so repeated launches of the same mod build
+     * share one file instead of leaving a new temp file behind each time
+     * (a mapped file can't be deleted on exit on Windows).
+     */
+    static File extract(InputStream in, File dir) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            bytes.write(chunk, 0, n);
+        }
+        byte[] data = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        File target = new File(dir, String.format("stshelp_knowledge_v%d_%08x.idx", VERSION, crc.getValue()));
+        if (target.length() == data.length) {
+            return target;
+        }
+
+        // Write beside the target and rename, so another game instance never maps a partial file
+        File temp = File.createTempFile("stshelp_knowledge", ".tmp", dir);
+        try {
+            Files.write(temp.toPath(), data);
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Another instance may have won the race and still hold the file open
+            if (target.length() != data.length) {
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        return target;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Look up a card or relic, preferring the character-specific entry
+     * over the shared one. Returns null if neither exists.
+     */
+    public Entry lookup(String character, String kind, String id) {
+        if (character != null) {
+            Entry entry = find(key(character, kind, id));
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return find(key(ANY_CHARACTER, kind, id));
+    }
+
+    static String key(String character, String kind, String id) {
+        return character + "|" + kind + "|" + id;
+    }
+
+    private Entry find(String key) {
+        byte[] probe = key.getBytes(StandardCharsets.UTF_8);
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int offset = buffer.getInt(HEADER_SIZE + mid * 4);
+            int cmp = compareKey(offset, probe);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return readEntry(offset);
+            }
+        }
+        return null;
+    }
+
+    // Compares the key stored at offset with probe, in unsigned byte order.
+    private int compareKey(int offset, byte[] probe) {
+        int keyLen = buffer.getShort(offset) & 0xFFFF;
+        int start = offset + 2;
+        int n = Math.min(keyLen, probe.length);
+        for (int i = 0; i < n; i++) {
+            int a = buffer.get(start + i) & 0xFF;
+            int b = probe[i] & 0xFF;
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return keyLen - probe.length;
+    }
+
+    private Entry readEntry(int offset) {
+        int pos = offset + 2 + (buffer.getShort(offset) & 0xFFFF);
+        int rating = buffer.get(pos) & 0xFF;
+        int tagsLen = buffer.getShort(pos + 1) & 0xFFFF;
+        byte[] tagBytes = new byte[tagsLen];
+        for (int i = 0; i < tagsLen; i++) {
+            tagBytes[i] = buffer.get(pos + 3 + i);
+        }
+        String tags = new String(tagBytes, StandardCharsets.UTF_8);
+        return new Entry(rating, tags.isEmpty() ? new String[0] : tags.split(","));
+    }
+}
@@ -0,0 +1,162 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Build-time tool that compiles card/relic ratings into a KnowledgeIndex file.
+ * Runs during the Maven build; can also be run by hand:
+ * <pre>
+ *   java -cp target/classes:gson.jar com.kagelump.stshelp.KnowledgeIndexBuilder ratings.csv knowledge.idx
+ * </pre>
+ *
+ * CSV input has a header row and the columns {@code character,kind,id,rating,tags},
+ * with tags separated by semicolons. JSON input is an array of objects with the
+ * same field names and {@code tags} as an array. Ratings are 0-100.
+ */
+public class KnowledgeIndexBuilder {
+
+    // Sorted by key in unsigned UTF-8 byte order, matching KnowledgeIndex lookups
+    private final TreeMap<byte[], byte[]> records = new TreeMap<>(KnowledgeIndexBuilder::compareBytes);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: KnowledgeIndexBuilder <ratings.csv|ratings.json> <output.idx>");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        File output = new File(args[1]);
+
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        if (input.getName().toLowerCase().endsWith(".json")) {
+            builder.addJson(input);
+        } else {
+            builder.addCsv(input);
+        }
+        builder.write(output);
+        System.out.println("Wrote " + builder.size() + " entries to " + output);
+    }
+
+    public void addCsv(File file) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cols = line.split(",", -1);
+            if (cols.length != 5) {
+                throw new IOException(file + ":" + (i + 1) + ": expected 5 columns, got " + cols.length);
+            }
+            add(cols[0].trim(), cols[1].trim(), cols[2].trim(),
+                parseRating(cols[3].trim(), file + ":" + (i + 1)), splitTags(cols[4]));
+        }
+    }
+
+    public void addJson(File file) throws IOException {
+        JsonArray entries;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            entries = new Gson().fromJson(reader, JsonArray.class);
+        }
+        for (JsonElement element : entries) {
+            JsonObject entry = element.getAsJsonObject();
+            List<String> tags = new ArrayList<>();
+            if (entry.has("tags")) {
+                for (JsonElement tag : entry.getAsJsonArray("tags")) {
+                    tags.add(tag.getAsString().trim());
+                }
+            }
+            add(entry.get("character").getAsString(), entry.get("kind").getAsString(),
+                entry.get("id").getAsString(),
+                parseRating(entry.get("rating").getAsString(), file.toString()), tags);
+        }
+    }
+
+    public void add(String character, String kind, String id, int rating, List<String> tags) {
+        byte[] key = KnowledgeIndex.key(character.toUpperCase(), kind.toUpperCase(), id)
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] tagBytes = String.join(",", tags).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer record = ByteBuffer.allocate(2 + key.length + 1 + 2 + tagBytes.length);
+        record.putShort((short) key.length).put(key);
+        record.put((byte) rating);
+        record.putShort((short) tagBytes.length).put(tagBytes);
+        if (records.put(key, record.array()) != null) {
+            System.err.println("Warning: duplicate entry for " + new String(key, StandardCharsets.UTF_8)
+                    + ", keeping the last one");
+        }
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public void write(File output) throws IOException {
+        int count = records.size();
+        int dataStart = 12 + count * 4;
+        int size = dataStart;
+        for (byte[] record : records.values()) {
+            size += record.length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(KnowledgeIndex.MAGIC).putInt(KnowledgeIndex.VERSION).putInt(count);
+        int offset = dataStart;
+        for (byte[] record : records.values()) {
+            out.putInt(offset);
+            offset += record.length;
+        }
+        for (byte[] record : records.values()) {
+            out.put(record);
+        }
+
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        Files.write(output.toPath(), out.array());
+    }
+
+    private static int parseRating(String value, String where) throws IOException {
+        try {
+            int rating = Integer.parseInt(value);
+            if (rating < 0 || rating > 100) {
+                throw new IOException(where + ": rating out of range: " + rating);
+            }
+            return rating;
+        } catch (NumberFormatException e) {
+            throw new IOException(where + ": bad rating: " + value);
+        }
+    }
+
+    private static List<String> splitTags(String value) {
+        List<String> tags = new ArrayList<>();
+        for (String tag : value.split(";")) {
+            if (!tag.trim().isEmpty()) {
+                tags.add(tag.trim());
+            }
+        }
+        return tags;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+}
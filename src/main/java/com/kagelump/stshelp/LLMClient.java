@@ -32,6 +32,53 @@ public class LLMClient {
         this.gson = new Gson();
     }
 
+    public LLMClient(CoachSettings settings) {
+        this(settings.getApiKey(), settings.getEndpoint(), settings.getModel());
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /** Without an API key getAdvice never calls the endpoint. */
+    public boolean hasApiKey() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    /**
+     * Open a real connection to the endpoint with an unauthenticated HEAD
+     * request, so the first Help click skips class loading, DNS, TCP and the
+     * full TLS handshake: the TLS session is cached for resumption, and the
+     * drained connection goes into the keep-alive cache (only reused if the
+     * click comes within the server's keep-alive timeout). The response
+     * status is ignored. Failures are logged and otherwise ignored.
+     *
+     * @return true if the endpoint answered
+     */
+    public boolean warmUp() {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(endpoint).openConnection();
+            conn.setRequestMethod("HEAD");
+            conn.setConnectTimeout(5000);
+            conn.setReadTimeout(5000);
+            int responseCode = conn.getResponseCode();
+
+            // Drain and close (not disconnect) so the socket can be kept alive
+            InputStream is = responseCode < 400 ? conn.getInputStream() : conn.getErrorStream();
+            if (is != null) {
+                readResponse(is);
+            }
+            return true;
+        } catch (Exception e) {
+            STSHelpMod.logger.warn("LLM client warm-up failed: " + e.getMessage());
+            if (conn != null) {
+                conn.disconnect();
+            }
+            return false;
+        }
+    }
+
     /**
      * Create a prompt for the LLM based on game state.
      */
@@ -88,8 +135,22 @@ public class LLMClient {
             prompt.append(relicList.toString()).append("\n");
         }
 
-        // Combat info
-        if (gameState.has("combat")) {
+        // Rolling summary of earlier floors (bounded by RunSummarizer)
+        if (gameState.has("run_summary")) {
+            prompt.append("\nRun so far:\n").append(gameState.get("run_summary").getAsString());
+        }
+
+        // An open choice screen takes precedence: card rewards can also be
+        // offered mid-combat (Discovery and similar), and that is what the
+        // player is deciding on right now
+        if (gameState.has("choices")) {
+            JsonObject choices = gameState.getAsJsonObject("choices");
+            prompt.append("\n=== CHOICE: ").append(choices.get("screen").getAsString()).append(" ===\n");
+            appendOffered(prompt, "Cards offered", choices.getAsJsonArray("cards"));
+            appendOffered(prompt, "Relics offered", choices.getAsJsonArray("relics"));
+            prompt.append("\nWhich option should the player take (or skip), and why? Consider synergies with the current deck and relics.\n");
+        } else if (gameState.has("combat")) {
+            // Combat info
             JsonObject combat = gameState.getAsJsonObject("combat");
             prompt.append("\n=== COMBAT ===\n");
 
@@ -131,11 +192,27 @@ public class LLMClient {
         return prompt.toString();
     }
 
+    private void appendOffered(StringBuilder prompt, String label, JsonArray items) {
+        if (items == null || items.size() == 0) {
+            return;
+        }
+        prompt.append(label).append(": ");
+        for (int i = 0; i < items.size(); i++) {
+            JsonObject item = items.get(i).getAsJsonObject();
+            if (i > 0) prompt.append(", ");
+            prompt.append(item.get("name").getAsString());
+            if (item.has("price")) {
+                prompt.append(" (").append(item.get("price").getAsInt()).append(" gold)");
+            }
+        }
+        prompt.append("\n");
+    }
+
     /**
      * Send prompt to LLM API and get advice.
      */
     public String getAdvice(String prompt) throws IOException {
-        if (apiKey == null || apiKey.isEmpty()) {
+        if (!hasApiKey()) {
             return "Error: API key not configured. Please configure your API credentials.";
         }
 
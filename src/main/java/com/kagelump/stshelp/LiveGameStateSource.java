@@ -0,0 +1,222 @@
+package com.kagelump.stshelp;
+
+import com.megacrit.cardcrawl.cards.AbstractCard;
+import com.megacrit.cardcrawl.cards.CardGroup;
+import com.megacrit.cardcrawl.characters.AbstractPlayer;
+import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
+import com.megacrit.cardcrawl.monsters.AbstractMonster;
+import com.megacrit.cardcrawl.monsters.MonsterGroup;
+import com.megacrit.cardcrawl.powers.AbstractPower;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+import com.megacrit.cardcrawl.rooms.AbstractRoom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GameStateSource backed by the running game's AbstractDungeon state.
+ * Must only be used on the game thread.
+ */
+public class LiveGameStateSource implements GameStateSource {
+
+    @Override
+    public boolean hasActiveRun() {
+        return AbstractDungeon.player != null;
+    }
+
+    @Override
+    public String getCharacterName() {
+        return AbstractDungeon.player.name;
+    }
+
+    @Override
+    public String getCharacterClass() {
+        AbstractPlayer.PlayerClass chosenClass = AbstractDungeon.player.chosenClass;
+        return chosenClass != null ? chosenClass.name() : null;
+    }
+
+    @Override
+    public int getCurrentHp() {
+        return AbstractDungeon.player.currentHealth;
+    }
+
+    @Override
+    public int getMaxHp() {
+        return AbstractDungeon.player.maxHealth;
+    }
+
+    @Override
+    public int getEnergy() {
+        return AbstractDungeon.player.energy.energy;
+    }
+
+    @Override
+    public int getGold() {
+        return AbstractDungeon.player.gold;
+    }
+
+    @Override
+    public int getFloor() {
+        return AbstractDungeon.floorNum;
+    }
+
+    @Override
+    public int getAct() {
+        return AbstractDungeon.actNum;
+    }
+
+    @Override
+    public String getRoomType() {
+        AbstractRoom room = AbstractDungeon.getCurrRoom();
+        return room != null ? room.getClass().getSimpleName() : "";
+    }
+
+    @Override
+    public String getLastEncounter() {
+        return AbstractDungeon.lastCombatMetricKey;
+    }
+
+    @Override
+    public List<Card> getDeck() {
+        return toCards(AbstractDungeon.player.masterDeck);
+    }
+
+    @Override
+    public List<Relic> getRelics() {
+        return toRelics(AbstractDungeon.player.relics);
+    }
+
+    @Override
+    public boolean isInCombat() {
+        return AbstractDungeon.player != null
+                && AbstractDungeon.isPlayerInDungeon()
+                && AbstractDungeon.getCurrRoom() != null
+                && AbstractDungeon.getCurrRoom().phase == AbstractRoom.RoomPhase.COMBAT;
+    }
+
+    @Override
+    public List<Card> getHand() {
+        return toCards(AbstractDungeon.player.hand);
+    }
+
+    @Override
+    public int getDrawPileSize() {
+        CardGroup drawPile = AbstractDungeon.player.drawPile;
+        return drawPile != null ? drawPile.size() : 0;
+    }
+
+    @Override
+    public int getDiscardPileSize() {
+        CardGroup discardPile = AbstractDungeon.player.discardPile;
+        return discardPile != null ? discardPile.size() : 0;
+    }
+
+    @Override
+    public List<Enemy> getEnemies() {
+        MonsterGroup monsters = AbstractDungeon.getMonsters();
+        if (monsters == null || monsters.areMonstersBasicallyDead()) {
+            return Collections.emptyList();
+        }
+
+        List<Enemy> enemies = new ArrayList<>();
+        for (AbstractMonster monster : monsters.monsters) {
+            if (monster.isDead || monster.escaped) {
+                continue;
+            }
+            List<String> powers = new ArrayList<>();
+            if (monster.powers != null) {
+                for (AbstractPower power : monster.powers) {
+                    powers.add(power.name + " " + power.amount);
+                }
+            }
+            String intent = monster.intent != null ? monster.intent.toString() : null;
+            enemies.add(new Enemy(monster.name, monster.currentHealth, monster.maxHealth,
+                    intent, monster.intentDmg, powers));
+        }
+        return enemies;
+    }
+
+    @Override
+    public String getChoiceScreen() {
+        if (AbstractDungeon.screen == null) {
+            return null;
+        }
+        switch (AbstractDungeon.screen) {
+            case CARD_REWARD:
+                return "card_reward";
+            case SHOP:
+                return "shop";
+            case BOSS_REWARD:
+                return "boss_relic";
+            default:
+                return null;
+        }
+    }
+
+    /** Shop relics are private to ShopScreen, so only shop cards are offered. */
+    @Override
+    public List<Card> getOfferedCards() {
+        List<Card> cards = new ArrayList<>();
+        String screen = getChoiceScreen();
+        if ("card_reward".equals(screen)) {
+            if (AbstractDungeon.cardRewardScreen != null && AbstractDungeon.cardRewardScreen.rewardGroup != null) {
+                for (AbstractCard card : AbstractDungeon.cardRewardScreen.rewardGroup) {
+                    cards.add(new Card(card.cardID, card.name, card.upgraded, -1));
+                }
+            }
+        } else if ("shop".equals(screen) && AbstractDungeon.shopScreen != null) {
+            addShopCards(cards, AbstractDungeon.shopScreen.coloredCards);
+            addShopCards(cards, AbstractDungeon.shopScreen.colorlessCards);
+        }
+        return cards;
+    }
+
+    @Override
+    public Object getCardReward() {
+        // Each RewardItem hands its own card list to the screen, so the list identifies the reward
+        if ("card_reward".equals(getChoiceScreen()) && AbstractDungeon.cardRewardScreen != null) {
+            return AbstractDungeon.cardRewardScreen.rewardGroup;
+        }
+        return null;
+    }
+
+    @Override
+    public List<Relic> getOfferedRelics() {
+        if ("boss_relic".equals(getChoiceScreen()) && AbstractDungeon.bossRelicScreen != null) {
+            return toRelics(AbstractDungeon.bossRelicScreen.relics);
+        }
+        return Collections.emptyList();
+    }
+
+    private static void addShopCards(List<Card> cards, List<AbstractCard> shopCards) {
+        if (shopCards == null) {
+            return;
+        }
+        for (AbstractCard card : shopCards) {
+            cards.add(new Card(card.cardID, card.name, card.upgraded, card.price));
+        }
+    }
+
+    private static List<Card> toCards(CardGroup group) {
+        if (group == null || group.group == null) {
+            return Collections.emptyList();
+        }
+        List<Card> cards = new ArrayList<>(group.group.size());
+        for (AbstractCard card : group.group) {
+            cards.add(new Card(card.cardID, card.name, card.upgraded, -1));
+        }
+        return cards;
+    }
+
+    private static List<Relic> toRelics(List<AbstractRelic> relics) {
+        if (relics == null) {
+            return Collections.emptyList();
+        }
+        List<Relic> result = new ArrayList<>(relics.size());
+        for (AbstractRelic relic : relics) {
+            result.add(new Relic(relic.relicId, relic.name));
+        }
+        return result;
+    }
+}
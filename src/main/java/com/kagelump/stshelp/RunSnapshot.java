@@ -0,0 +1,65 @@
+package com.kagelump.stshelp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the run-level state RunSummarizer needs, taken on the
+ * game thread when the player enters a new floor. Kept deliberately small
+ * so capturing it is cheap enough to do inside a frame.
+ */
+public final class RunSnapshot {
+
+    public final int floor;
+    public final int act;
+    public final int currentHp;
+    public final int maxHp;
+    public final int gold;
+    public final String roomType;
+    public final String lastEncounter;
+    public final List<String> deck;
+    public final List<String> relics;
+    /** Cards shown on card reward screens since the previous snapshot, taken or not. */
+    public final List<String> offered;
+
+    public RunSnapshot(int floor, int act, int currentHp, int maxHp, int gold, String roomType,
+                       String lastEncounter, List<String> deck, List<String> relics, List<String> offered) {
+        this.floor = floor;
+        this.act = act;
+        this.currentHp = currentHp;
+        this.maxHp = maxHp;
+        this.gold = gold;
+        this.roomType = roomType;
+        this.lastEncounter = lastEncounter;
+        this.deck = Collections.unmodifiableList(deck);
+        this.relics = Collections.unmodifiableList(relics);
+        this.offered = Collections.unmodifiableList(offered);
+    }
+
+    /**
+     * Capture the current run from the given source, together with the card
+     * rewards offered on the floor being left. For the live game this must
+     * be called on the game thread. Returns null if no run is active.
+     */
+    public static RunSnapshot capture(GameStateSource source, List<String> offered) {
+        if (!source.hasActiveRun()) {
+            return null;
+        }
+
+        List<GameStateSource.Card> deckCards = source.getDeck();
+        List<String> deck = new ArrayList<>(deckCards.size());
+        for (GameStateSource.Card card : deckCards) {
+            deck.add(card.displayName());
+        }
+        List<GameStateSource.Relic> relicList = source.getRelics();
+        List<String> relics = new ArrayList<>(relicList.size());
+        for (GameStateSource.Relic relic : relicList) {
+            relics.add(relic.name);
+        }
+
+        return new RunSnapshot(source.getFloor(), source.getAct(),
+                source.getCurrentHp(), source.getMaxHp(), source.getGold(), source.getRoomType(),
+                source.getLastEncounter(), deck, relics, new ArrayList<>(offered));
+    }
+}
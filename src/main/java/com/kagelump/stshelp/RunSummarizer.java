@@ -0,0 +1,284 @@
+package com.kagelump.stshelp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps a compact, rolling summary of the current run for the LLM prompt.
+ * Snapshots are captured on the game thread at floor transitions and diffed
+ * against the previous one on a background executor, so building the summary
+ * never blocks a Help click; readers just get the latest published string.
+ * The summary is capped at {@link #MAX_SUMMARY_CHARS}.
+ */
+public class RunSummarizer {
+
+    public static final String TASK_KEY = "run-summary";
+    public static final int MAX_SUMMARY_CHARS = 600;
+    private static final int MAX_HP_POINTS = 6;
+    private static final int MAX_LIST_ITEMS = 8;
+
+    /** Most recent items of an unbounded history, plus a count of older ones. */
+    private static final class RecentList {
+        final Deque<String> items = new ArrayDeque<>();
+        int omitted = 0;
+
+        void add(String item) {
+            items.addLast(item);
+            if (items.size() > MAX_LIST_ITEMS) {
+                items.removeFirst();
+                omitted++;
+            }
+        }
+
+        void appendTo(StringBuilder sb, String label) {
+            if (items.isEmpty()) {
+                return;
+            }
+            sb.append(label).append(": ");
+            if (omitted > 0) {
+                sb.append("(").append(omitted).append(" earlier) ");
+            }
+            sb.append(String.join(", ", items)).append(".\n");
+        }
+    }
+
+    /**
+     * Card rewards shown on the current floor, for the next snapshot's
+     * offered list. Game thread only. Rewards are keyed by identity, so
+     * reopening the same reward doesn't record its cards twice.
+     */
+    public static final class OfferLog {
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<String> offered = new ArrayList<>();
+
+        /** Whether this reward still needs recording; cheap enough to call every frame. */
+        public boolean isNew(Object reward) {
+            return !seen.contains(reward);
+        }
+
+        public void record(Object reward, List<String> cards) {
+            if (seen.add(reward)) {
+                offered.addAll(cards);
+            }
+        }
+
+        /** Cards offered since the last call, which starts the next floor. */
+        public List<String> drain() {
+            List<String> result = new ArrayList<>(offered);
+            offered.clear();
+            seen.clear();
+            return result;
+        }
+    }
+
+    private final Executor executor;
+
+    // Touched only by update(), which is serialized
+    private RunSnapshot previous;
+    private int startFloor;
+    private int hallwayFights;
+    private int lowestHp;
+    private int lowestHpFloor;
+    private Deque<String> hpTrend;
+    private RecentList elites;
+    private RecentList bosses;
+    private RecentList cardsAdded;
+    private RecentList cardsRemoved;
+    private RecentList upgrades;
+    private RecentList skipped;
+    private RecentList relicsGained;
+
+    private volatile String summary = "";
+    private volatile long updateCount = 0;
+    private volatile long totalUpdateNanos = 0;
+
+    /**
+     * @param executor runs the diffs; it must run them one at a time, in
+     *                 submission order (see AdviceScheduler#serialExecutor)
+     */
+    public RunSummarizer(Executor executor) {
+        this.executor = executor;
+        reset();
+    }
+
+    /**
+     * Queue a floor-transition snapshot for summarizing. Cheap; safe to call
+     * from the game thread.
+     */
+    public void onFloorChange(RunSnapshot snapshot) {
+        if (snapshot != null) {
+            executor.execute(() -> update(snapshot));
+        }
+    }
+
+    /** Latest summary, or an empty string before the first update. Never blocks. */
+    public String getSummary() {
+        return summary;
+    }
+
+    public String getStats() {
+        long count = updateCount;
+        long avgMicros = count > 0 ? totalUpdateNanos / count / 1000L : 0;
+        return "Run summary: " + summary.length() + " chars, " + count
+                + " updates, avg " + avgMicros + " us";
+    }
+
+    private synchronized void update(RunSnapshot current) {
+        long start = System.nanoTime();
+
+        // A lower floor means a new run was started
+        if (previous == null || current.floor < previous.floor) {
+            reset();
+            previous = current;
+            startFloor = current.floor;
+            lowestHp = current.currentHp;
+            lowestHpFloor = current.floor;
+            publish(start);
+            return;
+        }
+
+        applyDiff(previous, current);
+        previous = current;
+        publish(start);
+    }
+
+    // Record what happened on the floor the player just left.
+    private void applyDiff(RunSnapshot before, RunSnapshot after) {
+        int hpDelta = after.currentHp - before.currentHp;
+        String encounter = after.lastEncounter != null ? after.lastEncounter : "unknown";
+        String fight = encounter + " F" + before.floor + " (" + formatDelta(hpDelta) + " HP)";
+        if ("MonsterRoomElite".equals(before.roomType)) {
+            elites.add(fight);
+        } else if ("MonsterRoomBoss".equals(before.roomType)) {
+            bosses.add(fight);
+        } else if ("MonsterRoom".equals(before.roomType)) {
+            hallwayFights++;
+        }
+
+        hpTrend.addLast("F" + after.floor + " " + after.currentHp + "/" + after.maxHp);
+        if (hpTrend.size() > MAX_HP_POINTS) {
+            hpTrend.removeFirst();
+        }
+        if (after.currentHp < lowestHp) {
+            lowestHp = after.currentHp;
+            lowestHpFloor = after.floor;
+        }
+
+        Map<String, Integer> added = diffDeck(before.deck, after.deck);
+        recordSkipped(after.offered, added, before.floor);
+        for (String relic : after.relics) {
+            if (!before.relics.contains(relic)) {
+                relicsGained.add(relic + " F" + before.floor);
+            }
+        }
+    }
+
+    // Record removals and upgrades; returns the remaining additions by count.
+    private Map<String, Integer> diffDeck(List<String> before, List<String> after) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String card : after) {
+            counts.merge(card, 1, Integer::sum);
+        }
+        for (String card : before) {
+            counts.merge(card, -1, Integer::sum);
+        }
+
+        // Pair a removed card with its upgraded copy as an upgrade
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String card = entry.getKey();
+            while (entry.getValue() < 0) {
+                Integer upgraded = counts.get(card + "+");
+                if (upgraded != null && upgraded > 0) {
+                    counts.put(card + "+", upgraded - 1);
+                    upgrades.add(card);
+                } else {
+                    cardsRemoved.add(card);
+                }
+                entry.setValue(entry.getValue() + 1);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                cardsAdded.add(entry.getKey());
+            }
+        }
+        return counts;
+    }
+
+    // Skipped cards are the ones offered on the floor that didn't end up in the deck.
+    private void recordSkipped(List<String> offered, Map<String, Integer> added, int floor) {
+        List<String> passed = new ArrayList<>();
+        for (String card : offered) {
+            Integer count = added.get(card);
+            if (count != null && count > 0) {
+                added.put(card, count - 1);
+            } else {
+                passed.add(card);
+            }
+        }
+        if (!passed.isEmpty()) {
+            skipped.add(String.join("/", passed) + " F" + floor);
+        }
+    }
+
+    private void publish(long startNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Floors ").append(startFloor).append("-").append(previous.floor)
+          .append(" (Act ").append(previous.act).append("), gold ").append(previous.gold).append(".\n");
+        if (!hpTrend.isEmpty()) {
+            sb.append("HP: ").append(String.join(", ", hpTrend))
+              .append(" (low ").append(lowestHp).append(" on F").append(lowestHpFloor).append(").\n");
+        }
+        if (hallwayFights > 0) {
+            sb.append("Hallway fights: ").append(hallwayFights).append(".\n");
+        }
+        elites.appendTo(sb, "Elites");
+        bosses.appendTo(sb, "Bosses");
+        cardsAdded.appendTo(sb, "Cards added");
+        cardsRemoved.appendTo(sb, "Cards removed");
+        upgrades.appendTo(sb, "Upgraded");
+        skipped.appendTo(sb, "Skipped");
+        relicsGained.appendTo(sb, "Relics gained");
+
+        if (sb.length() > MAX_SUMMARY_CHARS) {
+            sb.setLength(MAX_SUMMARY_CHARS - 3);
+            sb.append("...");
+        }
+        summary = sb.toString();
+
+        long elapsed = System.nanoTime() - startNanos;
+        updateCount++;
+        totalUpdateNanos += elapsed;
+        STSHelpMod.logger.info("Run summary updated in " + (elapsed / 1000L) + " us ("
+                + summary.length() + " chars)");
+    }
+
+    private void reset() {
+        previous = null;
+        startFloor = 0;
+        hallwayFights = 0;
+        lowestHp = Integer.MAX_VALUE;
+        lowestHpFloor = 0;
+        hpTrend = new ArrayDeque<>();
+        elites = new RecentList();
+        bosses = new RecentList();
+        cardsAdded = new RecentList();
+        cardsRemoved = new RecentList();
+        upgrades = new RecentList();
+        skipped = new RecentList();
+        relicsGained = new RecentList();
+        summary = "";
+    }
+
+    private static String formatDelta(int delta) {
+        return delta > 0 ? "+" + delta : String.valueOf(delta);
+    }
+}
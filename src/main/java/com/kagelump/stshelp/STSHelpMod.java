@@ -3,12 +3,16 @@ package com.kagelump.stshelp;
 import basemod.BaseMod;
 import basemod.ModPanel;
 import basemod.interfaces.*;
+import com.google.gson.JsonObject;
 import com.evacipated.cardcrawl.modthespire.lib.SpireInitializer;
 import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.helpers.ImageMaster;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @SpireInitializer
 public class STSHelpMod implements
         PostInitializeSubscriber,
@@ -23,23 +27,36 @@ public class STSHelpMod implements
     private HelpButton helpButton;
     private AdviceScreen adviceScreen;
     private AICoachClient aiClient;
+    private final AdviceQueue adviceQueue = new AdviceQueue();
+    // Choices last answered from the local index; a repeat click asks the LLM
+    private String lastQuickChoices;
+    private RunSummarizer runSummarizer;
+    private final GameStateSource stateSource = new LiveGameStateSource();
+    private int lastFloor = -1;
+    // Card rewards seen since the last floor change, for the summary's skipped cards
+    private final RunSummarizer.OfferLog offerLog = new RunSummarizer.OfferLog();
     private static STSHelpMod instance;
 
     public STSHelpMod() {
+        long start = System.nanoTime();
         logger.info("Initializing STS Help Mod");
         BaseMod.subscribe(this);
         instance = this;
         
-        // Initialize AI client
+        // Initialize AI client (configuration loads in the background)
         aiClient = new AICoachClient();
+        runSummarizer = new RunSummarizer(aiClient.backgroundExecutor(RunSummarizer.TASK_KEY));
         
         // Add shutdown hook for cleanup
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down STS Help Mod");
+            logger.info(runSummarizer.getStats());
             if (aiClient != null) {
                 aiClient.shutdown();
             }
         }));
+
+        logger.info("STS Help constructor took " + AICoachClient.elapsedMillis(start) + " ms");
     }
 
     public static void initialize() {
@@ -52,6 +69,7 @@ public class STSHelpMod implements
 
     @Override
     public void receivePostInitialize() {
+        long start = System.nanoTime();
         logger.info("STS Help Post-Initialize");
         
         // Create mod panel
@@ -76,6 +94,11 @@ public class STSHelpMod implements
         
         // Initialize advice screen
         adviceScreen = new AdviceScreen();
+
+        // Warm up the HTTP client now that the game has loaded
+        aiClient.warmUp();
+
+        logger.info("STS Help post-initialize took " + AICoachClient.elapsedMillis(start) + " ms");
     }
 
     @Override
@@ -85,29 +108,78 @@ public class STSHelpMod implements
             helpButton.update();
         }
         if (adviceScreen != null) {
+            // Apply results handed off by the worker thread
+            adviceQueue.drain(adviceScreen::showAdvice, AdviceQueue.DEFAULT_FRAME_BUDGET);
             adviceScreen.update();
         }
+
+        if (!stateSource.hasActiveRun()) {
+            return;
+        }
+
+        // Record each card reward once. Card choices during combat (Discovery
+        // and similar) go to the hand, not the deck, so they aren't rewards.
+        Object reward = stateSource.getCardReward();
+        if (reward != null && offerLog.isNew(reward) && !stateSource.isInCombat()) {
+            List<String> cards = new ArrayList<>();
+            for (GameStateSource.Card card : stateSource.getOfferedCards()) {
+                cards.add(card.displayName());
+            }
+            offerLog.record(reward, cards);
+        }
+
+        // Summarize the floor just left in the background
+        if (stateSource.getFloor() != lastFloor) {
+            lastFloor = stateSource.getFloor();
+            runSummarizer.onFloorChange(RunSnapshot.capture(stateSource, offerLog.drain()));
+        }
     }
 
     public void requestAdvice() {
         logger.info("Requesting AI advice");
+        // Supersede any request still in flight so its result can't overwrite this one
+        long generation = adviceQueue.beginRequest();
         try {
             // Get current game state
-            GameStateExtractor extractor = new GameStateExtractor();
-            String gameState = extractor.extractState();
+            GameStateExtractor extractor = new GameStateExtractor(stateSource);
+            JsonObject state = extractor.extractStateJson();
+
+            // Answer reward/shop/boss choices locally first; Help again asks the LLM
+            if (state.has("choices")) {
+                String choices = state.get("choices").toString();
+                if (!choices.equals(lastQuickChoices)) {
+                    String quickAdvice = aiClient.getQuickAdvice(state);
+                    if (quickAdvice != null) {
+                        lastQuickChoices = choices;
+                        adviceScreen.showAdvice(quickAdvice);
+                        return;
+                    }
+                }
+            }
+            lastQuickChoices = null;
+
+            String runSummary = runSummarizer.getSummary();
+            if (!runSummary.isEmpty() && !state.has("error")) {
+                state.addProperty("run_summary", runSummary);
+            }
+
+            String gameState = state.toString();
+            AdviceScheduler.Priority priority = stateSource.isInCombat()
+                    ? AdviceScheduler.Priority.INTERACTIVE_COMBAT
+                    : AdviceScheduler.Priority.INTERACTIVE_GENERAL;
             
-            // Send to AI client
-            aiClient.requestAdvice(gameState, new AICoachClient.AdviceCallback() {
+            // Send to AI client; callbacks run on a worker thread, so hand results to the game thread
+            aiClient.requestAdvice(gameState, priority, new AICoachClient.AdviceCallback() {
                 @Override
                 public void onAdviceReceived(String advice) {
                     logger.info("Advice received");
-                    adviceScreen.showAdvice(advice);
+                    adviceQueue.postComplete(generation, advice);
                 }
 
                 @Override
                 public void onError(String error) {
                     logger.error("Error getting advice: " + error);
-                    adviceScreen.showAdvice("Error: " + error);
+                    adviceQueue.postError(generation, error);
                 }
             });
         } catch (Exception e) {
@@ -0,0 +1,64 @@
+package com.kagelump.stshelp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdviceQueueTest {
+
+    @Test
+    public void dropsResultsFromSupersededRequests() {
+        AdviceQueue queue = new AdviceQueue();
+        long first = queue.beginRequest();
+        long second = queue.beginRequest();
+
+        // The second request finishes first; the first one's late result must not replace it
+        queue.postComplete(second, "second");
+        queue.postComplete(first, "first");
+
+        List<String> shown = new ArrayList<>();
+        assertEquals(1, queue.drain(shown::add, AdviceQueue.DEFAULT_FRAME_BUDGET));
+        assertEquals(Arrays.asList("second"), shown);
+    }
+
+    @Test
+    public void newRequestDiscardsPendingResults() {
+        AdviceQueue queue = new AdviceQueue();
+        long first = queue.beginRequest();
+        queue.postComplete(first, "first");
+        queue.beginRequest();
+
+        List<String> shown = new ArrayList<>();
+        assertEquals(0, queue.drain(shown::add, AdviceQueue.DEFAULT_FRAME_BUDGET));
+        assertEquals(0, shown.size());
+    }
+
+    @Test
+    public void errorsArePrefixed() {
+        AdviceQueue queue = new AdviceQueue();
+        long generation = queue.beginRequest();
+        queue.postError(generation, "timeout");
+
+        List<String> shown = new ArrayList<>();
+        queue.drain(shown::add, AdviceQueue.DEFAULT_FRAME_BUDGET);
+        assertEquals(Arrays.asList("Error: timeout"), shown);
+    }
+
+    @Test
+    public void drainRespectsFrameBudget() {
+        AdviceQueue queue = new AdviceQueue();
+        long generation = queue.beginRequest();
+        for (int i = 0; i < 5; i++) {
+            queue.postComplete(generation, "advice " + i);
+        }
+
+        List<String> shown = new ArrayList<>();
+        assertEquals(2, queue.drain(shown::add, 2));
+        assertEquals(Arrays.asList("advice 0", "advice 1"), shown);
+        assertEquals(3, queue.drain(shown::add, 10));
+    }
+}
@@ -0,0 +1,139 @@
+package com.kagelump.stshelp;
+
+import com.kagelump.stshelp.AdviceScheduler.Priority;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdviceSchedulerTest {
+
+    private static final String LANE = "https://llm.example/v1/chat/completions";
+
+    private final AdviceScheduler scheduler = new AdviceScheduler(2);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void dispatchesQueuedJobsByPriority() throws Exception {
+        // Hold one slot for the whole test, so background work can't start
+        // and the remaining slot runs queued jobs one at a time
+        CountDownLatch holdFirstSlot = new CountDownLatch(1);
+        CountDownLatch releaseSecondSlot = new CountDownLatch(1);
+        scheduler.submit(LANE, Priority.INTERACTIVE_GENERAL, () -> await(holdFirstSlot));
+        scheduler.submit(LANE, Priority.INTERACTIVE_GENERAL, () -> await(releaseSecondSlot));
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch interactiveDone = new CountDownLatch(2);
+        CountDownLatch backgroundDone = new CountDownLatch(1);
+        scheduler.submit(LANE, Priority.BACKGROUND, () -> {
+            order.add("background");
+            backgroundDone.countDown();
+        });
+        scheduler.submit(LANE, Priority.INTERACTIVE_GENERAL, () -> {
+            order.add("general");
+            interactiveDone.countDown();
+        });
+        scheduler.submit(LANE, Priority.INTERACTIVE_COMBAT, () -> {
+            order.add("combat");
+            interactiveDone.countDown();
+        });
+
+        releaseSecondSlot.countDown();
+        assertTrue(interactiveDone.await(5, TimeUnit.SECONDS));
+        assertFalse("background must not take the last free slot", backgroundDone.await(100, TimeUnit.MILLISECONDS));
+
+        holdFirstSlot.countDown();
+        assertTrue(backgroundDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("combat", "general", "background"), order);
+    }
+
+    @Test
+    public void interactiveRunsWhileBackgroundIsBusy() throws Exception {
+        CountDownLatch releaseBackground = new CountDownLatch(1);
+        scheduler.submit(LANE, Priority.BACKGROUND, () -> await(releaseBackground));
+        scheduler.submit(LANE, Priority.BACKGROUND, () -> await(releaseBackground));
+
+        CountDownLatch combatDone = new CountDownLatch(1);
+        scheduler.submit(LANE, Priority.INTERACTIVE_COMBAT, combatDone::countDown);
+
+        assertTrue(combatDone.await(5, TimeUnit.SECONDS));
+        releaseBackground.countDown();
+    }
+
+    @Test
+    public void lanesAreCappedIndependently() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(LANE, Priority.INTERACTIVE_GENERAL, () -> await(release));
+        scheduler.submit(LANE, Priority.INTERACTIVE_GENERAL, () -> await(release));
+
+        CountDownLatch otherLaneDone = new CountDownLatch(1);
+        scheduler.submit(AdviceScheduler.LANE_STARTUP, Priority.INTERACTIVE_GENERAL, otherLaneDone::countDown);
+
+        assertTrue(otherLaneDone.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void serialExecutorRunsTasksOneAtATimeInOrder() throws Exception {
+        AdviceScheduler wide = new AdviceScheduler(4);
+        try {
+            Executor serial = wide.serialExecutor(RunSummarizer.TASK_KEY, Priority.BACKGROUND);
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                int n = i;
+                serial.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    order.add(n);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), order);
+            assertEquals(1, maxRunning.get());
+        } finally {
+            wide.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapWithoutAnInteractiveSlot() {
+        new AdviceScheduler(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChoiceAdvisorTest {
+
+    private File indexFile;
+    private ChoiceAdvisor advisor;
+
+    @Before
+    public void setUp() throws IOException {
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        builder.addCsv(new File("src/main/data/knowledge.csv"));
+        indexFile = File.createTempFile("knowledge-test", ".idx");
+        builder.write(indexFile);
+        advisor = new ChoiceAdvisor(KnowledgeIndex.map(indexFile));
+    }
+
+    @After
+    public void tearDown() {
+        indexFile.delete();
+    }
+
+    @Test
+    public void synergyBonusCountsDistinctSharedTags() {
+        JsonObject state = defectState("Strike_B", "Defend_B", "Zap", "Glacier", "Glacier", "Glacier");
+        addOffered(state, "Coolheaded", "Compile Driver", "Seek");
+
+        String advice = advisor.advise(state);
+        assertTrue(advice, advice.contains("1. Coolheaded - 82 (+10 synergy: frost, orb)"));
+        assertTrue(advice, advice.contains("2. Seek - 76\n"));
+        assertTrue(advice, advice.contains("3. Compile Driver - 65 (+5 synergy: orb)"));
+    }
+
+    @Test
+    public void noBonusWithoutArchetypeCards() {
+        JsonObject state = defectState("Strike_B", "Defend_B", "Zap", "Dualcast");
+        addOffered(state, "Coolheaded", "Compile Driver", "Seek");
+
+        String advice = advisor.advise(state);
+        assertTrue(advice, advice.startsWith("Quick ratings (card reward):\n1. Seek - 76\n2. Coolheaded - 72\n"));
+        assertEquals(-1, advice.indexOf("synergy"));
+    }
+
+    @Test
+    public void unratedChoicesFallBackToTheModel() {
+        JsonObject state = defectState("Strike_B");
+        addOffered(state, "Zap", "Dualcast");
+
+        assertNull(advisor.advise(state));
+    }
+
+    @Test
+    public void shopRanksUnaffordableOptionsLast() {
+        JsonObject state = defectState("Strike_B");
+        state.getAsJsonObject("player").addProperty("gold", 100);
+        addShop(state, "Defragment", 160, "Compile Driver", 70, "Seek", 100);
+
+        String advice = advisor.advise(state);
+        assertTrue(advice, advice.startsWith("Quick ratings (shop):\n"
+                + "1. Seek (100 gold) - 76\n"
+                + "2. Compile Driver (70 gold) - 60\n"
+                + "3. Defragment (160 gold) - 80 - can't afford\n"));
+    }
+
+    @Test
+    public void shopWithNothingAffordableSaysSo() {
+        JsonObject state = defectState("Strike_B");
+        state.getAsJsonObject("player").addProperty("gold", 20);
+        addShop(state, "Defragment", 160, "Seek", 100);
+
+        String advice = advisor.advise(state);
+        assertTrue(advice, advice.contains("1. Defragment (160 gold) - 80 - can't afford\n"));
+        assertTrue(advice, advice.contains("Nothing here is affordable with 20 gold.\n"));
+    }
+
+    private static JsonObject defectState(String... deckIds) {
+        JsonObject player = new JsonObject();
+        player.addProperty("class", "DEFECT");
+        JsonArray deck = new JsonArray();
+        for (String id : deckIds) {
+            deck.add(id);
+        }
+        JsonObject state = new JsonObject();
+        state.add("player", player);
+        state.add("deck_ids", deck);
+        return state;
+    }
+
+    // Alternating card IDs and prices
+    private static void addShop(JsonObject state, Object... idsAndPrices) {
+        JsonArray cards = new JsonArray();
+        for (int i = 0; i < idsAndPrices.length; i += 2) {
+            JsonObject card = new JsonObject();
+            card.addProperty("id", (String) idsAndPrices[i]);
+            card.addProperty("name", (String) idsAndPrices[i]);
+            card.addProperty("price", (Integer) idsAndPrices[i + 1]);
+            cards.add(card);
+        }
+        JsonObject choices = new JsonObject();
+        choices.addProperty("screen", "shop");
+        choices.add("cards", cards);
+        choices.add("relics", new JsonArray());
+        state.add("choices", choices);
+    }
+
+    private static void addOffered(JsonObject state, String... cardIds) {
+        JsonArray cards = new JsonArray();
+        for (String id : cardIds) {
+            JsonObject card = new JsonObject();
+            card.addProperty("id", id);
+            card.addProperty("name", id);
+            cards.add(card);
+        }
+        JsonObject choices = new JsonObject();
+        choices.addProperty("screen", "card_reward");
+        choices.add("cards", cards);
+        choices.add("relics", new JsonArray());
+        state.add("choices", choices);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExtractionPipelineTest {
+
+    private final LLMClient llmClient = new LLMClient(null, null, null);
+
+    @Test
+    public void sameSeedGivesTheSameStates() {
+        SyntheticGameStateSource a = SyntheticGameStateSource.normal(7);
+        SyntheticGameStateSource b = SyntheticGameStateSource.normal(7);
+        for (int floor = 0; floor < 20; floor++) {
+            assertEquals(new GameStateExtractor(a).extractState(), new GameStateExtractor(b).extractState());
+            a.nextFloor();
+            b.nextFloor();
+        }
+    }
+
+    @Test
+    public void largeCombatStateIsExtractedInFull() {
+        SyntheticGameStateSource source = SyntheticGameStateSource.large(42);
+        for (GameStateSource.Enemy enemy : source.getEnemies()) {
+            assertTrue(enemy.powers.size() >= 1 && enemy.powers.size() <= 4);
+        }
+        JsonObject state = new GameStateExtractor(source).extractStateJson();
+
+        assertEquals(120, state.getAsJsonArray("deck").size());
+        assertEquals(35, state.getAsJsonArray("relics").size());
+        JsonObject combat = state.getAsJsonObject("combat");
+        assertEquals(12, combat.getAsJsonArray("hand").size());
+        assertEquals(5, combat.getAsJsonArray("enemies").size());
+        assertFalse(combat.getAsJsonArray("enemies").get(0).getAsJsonObject().has("powers"));
+        assertFalse(state.has("choices"));
+
+        String prompt = llmClient.createPrompt(roundTrip(state));
+        assertTrue(prompt.contains("=== COMBAT ==="));
+        assertFalse(prompt.contains("=== CHOICE"));
+    }
+
+    @Test
+    public void choiceScreenReplacesCombatInThePrompt() {
+        SyntheticGameStateSource source = SyntheticGameStateSource.normal(42);
+        source.setChoiceScreen("shop");
+        JsonObject state = new GameStateExtractor(source).extractStateJson();
+
+        assertFalse(state.has("combat"));
+        assertEquals(7, state.getAsJsonObject("choices").getAsJsonArray("cards").size());
+        assertEquals(state.getAsJsonArray("deck").size(), state.getAsJsonArray("deck_ids").size());
+
+        String prompt = llmClient.createPrompt(roundTrip(state));
+        assertTrue(prompt.contains("=== CHOICE: shop ==="));
+        assertTrue(prompt.contains(" gold)"));
+        assertFalse(prompt.contains("=== COMBAT ==="));
+    }
+
+    @Test
+    public void longRunSummaryStaysWithinCap() {
+        SyntheticGameStateSource source = SyntheticGameStateSource.large(42);
+        RunSummarizer summarizer = new RunSummarizer(Runnable::run);
+        for (int floor = 0; floor < 55; floor++) {
+            source.setChoiceScreen(floor % 2 == 0 ? "card_reward" : null);
+            List<String> offered = new ArrayList<>();
+            for (GameStateSource.Card card : source.getOfferedCards()) {
+                offered.add(card.displayName());
+            }
+            source.nextFloor();
+            summarizer.onFloorChange(RunSnapshot.capture(source, offered));
+        }
+
+        String summary = summarizer.getSummary();
+        assertTrue(summary.startsWith("Floors 2-56"));
+        assertTrue(summary.length() <= RunSummarizer.MAX_SUMMARY_CHARS);
+    }
+
+    private static JsonObject roundTrip(JsonObject state) {
+        return new Gson().fromJson(state.toString(), JsonObject.class);
+    }
+}
@@ -0,0 +1,179 @@
+package com.kagelump.stshelp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KnowledgeIndexTest {
+
+    private static final File RATINGS = new File("src/main/data/knowledge.csv");
+
+    /**
+     * Internal game IDs (AbstractCard.cardID / AbstractRelic.relicId) for every
+     * entry in knowledge.csv. Several differ from the display name (Claw is
+     * "Gash", Rushdown is "Adaptation"); an entry keyed by display name can
+     * never match in game, so new rows must be added here with their real ID.
+     */
+    private static final Set<String> KNOWN_GAME_IDS = new HashSet<>(Arrays.asList(
+        "CARD|Accuracy", "CARD|Acrobatics", "CARD|Adaptation", "CARD|Adrenaline", "CARD|After Image",
+        "CARD|All For One", "CARD|Apotheosis", "CARD|Backflip", "CARD|Ball Lightning", "CARD|Barricade",
+        "CARD|Battle Trance", "CARD|Biased Cognition", "CARD|Blade Dance", "CARD|Bouncing Flask",
+        "CARD|Carnage", "CARD|Catalyst", "CARD|Clash", "CARD|Compile Driver", "CARD|Coolheaded",
+        "CARD|Corruption", "CARD|Dark Embrace", "CARD|Dash", "CARD|Deadly Poison", "CARD|Defragment",
+        "CARD|Demon Form", "CARD|Echo Form", "CARD|Electrodynamics", "CARD|Entrench", "CARD|Feed",
+        "CARD|Feel No Pain", "CARD|Footwork", "CARD|Gash", "CARD|Glacier", "CARD|HandOfGreed",
+        "CARD|Heavy Blade", "CARD|Inflame", "CARD|InnerPeace", "CARD|Limit Break", "CARD|Loop",
+        "CARD|Madness", "CARD|Master of Strategy", "CARD|MentalFortress", "CARD|Noxious Fumes",
+        "CARD|Offering", "CARD|Panacea", "CARD|PiercingWail", "CARD|Pommel Strike", "CARD|Ragnarok",
+        "CARD|Reaper", "CARD|Second Wind", "CARD|Seek", "CARD|Shockwave", "CARD|Shrug It Off",
+        "CARD|Sword Boomerang", "CARD|TalkToTheHand", "CARD|Tantrum", "CARD|Uppercut",
+        "CARD|Well Laid Plans", "CARD|Whirlwind", "CARD|Wraith Form v2",
+        "RELIC|Astrolabe", "RELIC|Bag of Preparation", "RELIC|Black Blood", "RELIC|Black Star",
+        "RELIC|Busted Crown", "RELIC|Calling Bell", "RELIC|Coffee Dripper", "RELIC|Cursed Key",
+        "RELIC|Dead Branch", "RELIC|Ectoplasm", "RELIC|Empty Cage", "RELIC|FrozenCore",
+        "RELIC|Fusion Hammer", "RELIC|HolyWater", "RELIC|Kunai", "RELIC|Pandora's Box", "RELIC|Pen Nib",
+        "RELIC|Philosopher's Stone", "RELIC|Ring of the Serpent", "RELIC|Runic Dome",
+        "RELIC|Runic Pyramid", "RELIC|Shuriken", "RELIC|SlaversCollar", "RELIC|Snecko Eye",
+        "RELIC|Sozu", "RELIC|Tiny House", "RELIC|Velvet Choker"
+    ));
+
+    private final List<File> tempFiles = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (File file : tempFiles) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void bundledRatingsUseGameIds() throws IOException {
+        for (String[] row : readRows(RATINGS)) {
+            String key = row[1] + "|" + row[2];
+            assertTrue("Not a known game ID (display name?): " + key, KNOWN_GAME_IDS.contains(key));
+        }
+    }
+
+    @Test
+    public void bundledRatingsRoundTrip() throws IOException {
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        builder.addCsv(RATINGS);
+        KnowledgeIndex index = KnowledgeIndex.map(write(builder));
+
+        List<String[]> rows = readRows(RATINGS);
+        assertEquals(rows.size(), index.size());
+        for (String[] row : rows) {
+            KnowledgeIndex.Entry entry = index.lookup(row[0], row[1], row[2]);
+            assertNotNull("Missing " + row[0] + "|" + row[1] + "|" + row[2], entry);
+            assertEquals(Integer.parseInt(row[3]), entry.rating);
+            assertEquals(row[4].replace(';', ','), String.join(",", entry.tags));
+        }
+
+        // Cards whose IDs differ from their display names
+        assertNotNull(index.lookup("DEFECT", KnowledgeIndex.KIND_CARD, "Gash"));
+        assertNotNull(index.lookup("THE_SILENT", KnowledgeIndex.KIND_CARD, "PiercingWail"));
+        assertNotNull(index.lookup("IRONCLAD", KnowledgeIndex.KIND_CARD, "HandOfGreed"));
+        assertNull(index.lookup("DEFECT", KnowledgeIndex.KIND_CARD, "Claw"));
+    }
+
+    @Test
+    public void characterEntryOverridesSharedEntry() throws IOException {
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        builder.add("ANY", "CARD", "Madness", 60, Arrays.asList("energy"));
+        builder.add("IRONCLAD", "CARD", "Madness", 75, Arrays.asList("strength", "exhaust"));
+        KnowledgeIndex index = KnowledgeIndex.map(write(builder));
+
+        assertEquals(75, index.lookup("IRONCLAD", "CARD", "Madness").rating);
+        assertEquals(60, index.lookup("DEFECT", "CARD", "Madness").rating);
+        assertEquals(60, index.lookup(null, "CARD", "Madness").rating);
+        assertNull(index.lookup("IRONCLAD", "RELIC", "Madness"));
+        assertEquals(Arrays.asList("strength", "exhaust"),
+                Arrays.asList(index.lookup("IRONCLAD", "CARD", "Madness").tags));
+    }
+
+    @Test
+    public void duplicateKeysKeepTheLastEntry() throws IOException {
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        builder.add("IRONCLAD", "CARD", "Offering", 50, new ArrayList<>());
+        builder.add("ironclad", "card", "Offering", 90, new ArrayList<>());
+        assertEquals(1, builder.size());
+
+        KnowledgeIndex index = KnowledgeIndex.map(write(builder));
+        assertEquals(90, index.lookup("IRONCLAD", "CARD", "Offering").rating);
+        assertEquals(0, index.lookup("IRONCLAD", "CARD", "Offering").tags.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesThatAreNotAnIndex() throws IOException {
+        File file = tempFile();
+        Files.write(file.toPath(), "not an index".getBytes(StandardCharsets.UTF_8));
+        KnowledgeIndex.map(file);
+    }
+
+    @Test
+    public void extractReusesOneFilePerIndexBuild() throws IOException {
+        KnowledgeIndexBuilder builder = new KnowledgeIndexBuilder();
+        builder.addCsv(RATINGS);
+        byte[] data = Files.readAllBytes(write(builder).toPath());
+
+        File dir = Files.createTempDirectory("knowledge-test").toFile();
+        try {
+            File first = KnowledgeIndex.extract(new ByteArrayInputStream(data), dir);
+            File second = KnowledgeIndex.extract(new ByteArrayInputStream(data), dir);
+            assertEquals(first, second);
+            assertEquals(1, dir.listFiles().length);
+            assertEquals(builder.size(), KnowledgeIndex.map(second).size());
+
+            builder.add("ANY", "CARD", "Finesse", 40, new ArrayList<>());
+            byte[] changed = Files.readAllBytes(write(builder).toPath());
+            File third = KnowledgeIndex.extract(new ByteArrayInputStream(changed), dir);
+            assertNotEquals(first, third);
+            assertEquals(builder.size(), KnowledgeIndex.map(third).size());
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    private File write(KnowledgeIndexBuilder builder) throws IOException {
+        File file = tempFile();
+        builder.write(file);
+        return file;
+    }
+
+    private File tempFile() throws IOException {
+        File file = File.createTempFile("knowledge-test", ".idx");
+        tempFiles.add(file);
+        return file;
+    }
+
+    // Data rows as {character, kind, id, rating, tags}
+    private static List<String[]> readRows(File csv) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        List<String> lines = Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                rows.add(line.split(",", -1));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,101 @@
+package com.kagelump.stshelp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RunSummarizerTest {
+
+    private static final List<String> STARTER = Arrays.asList("Strike", "Strike", "Defend", "Bash");
+
+    // Updates run inline, so the summary is ready as soon as onFloorChange returns
+    private final RunSummarizer summarizer = new RunSummarizer(Runnable::run);
+
+    @Test
+    public void reportsAddedRemovedAndUpgradedCards() {
+        summarizer.onFloorChange(snapshot(1, STARTER, Collections.<String>emptyList()));
+        summarizer.onFloorChange(snapshot(2, deck("Strike", "Defend", "Bash+", "Pommel Strike", "Pommel Strike"),
+                Collections.<String>emptyList()));
+
+        String summary = summarizer.getSummary();
+        assertTrue(summary, summary.contains("Cards added: Pommel Strike, Pommel Strike.\n"));
+        assertTrue(summary, summary.contains("Cards removed: Strike.\n"));
+        assertTrue(summary, summary.contains("Upgraded: Bash.\n"));
+    }
+
+    @Test
+    public void skippedCardsAreOfferedMinusAdded() {
+        summarizer.onFloorChange(snapshot(1, STARTER, Collections.<String>emptyList()));
+        summarizer.onFloorChange(snapshot(2, deck("Strike", "Strike", "Defend", "Bash", "Carnage"),
+                Arrays.asList("Clash", "Carnage", "Heavy Blade")));
+        summarizer.onFloorChange(snapshot(3, deck("Strike", "Strike", "Defend", "Bash", "Carnage"),
+                Arrays.asList("Inflame", "Anger", "Clash")));
+
+        String summary = summarizer.getSummary();
+        assertTrue(summary, summary.contains("Cards added: Carnage.\n"));
+        assertTrue(summary, summary.contains("Skipped: Clash/Heavy Blade F1, Inflame/Anger/Clash F2.\n"));
+    }
+
+    @Test
+    public void reopenedRewardIsRecordedOnce() {
+        RunSummarizer.OfferLog log = new RunSummarizer.OfferLog();
+        Object reward = new Object();
+        List<String> cards = Arrays.asList("Clash", "Carnage", "Heavy Blade");
+        // Opened, left for the deck view, reopened, then Carnage taken
+        log.record(reward, cards);
+        assertFalse(log.isNew(reward));
+        log.record(reward, cards);
+
+        summarizer.onFloorChange(snapshot(1, STARTER, Collections.<String>emptyList()));
+        summarizer.onFloorChange(snapshot(2, deck("Strike", "Strike", "Defend", "Bash", "Carnage"), log.drain()));
+
+        String summary = summarizer.getSummary();
+        assertTrue(summary, summary.contains("Skipped: Clash/Heavy Blade F1.\n"));
+        assertTrue(log.isNew(reward));
+    }
+
+    @Test
+    public void separateRewardsWithTheSameCardsAreBothRecorded() {
+        RunSummarizer.OfferLog log = new RunSummarizer.OfferLog();
+        log.record(new Object(), Arrays.asList("Anger", "Clash"));
+        log.record(new Object(), Arrays.asList("Anger", "Clash"));
+
+        assertEquals(Arrays.asList("Anger", "Clash", "Anger", "Clash"), log.drain());
+        assertEquals(Collections.<String>emptyList(), log.drain());
+    }
+
+    @Test
+    public void noSkippedLineWhenNothingWasOffered() {
+        summarizer.onFloorChange(snapshot(1, STARTER, Collections.<String>emptyList()));
+        summarizer.onFloorChange(snapshot(2, deck("Strike", "Strike", "Defend", "Bash", "Anger"),
+                Collections.<String>emptyList()));
+
+        assertFalse(summarizer.getSummary().contains("Skipped"));
+    }
+
+    @Test
+    public void lowerFloorStartsANewRun() {
+        summarizer.onFloorChange(snapshot(5, STARTER, Collections.<String>emptyList()));
+        summarizer.onFloorChange(snapshot(6, deck("Strike", "Strike", "Defend", "Bash", "Anger"),
+                Arrays.asList("Anger", "Clash")));
+        summarizer.onFloorChange(snapshot(0, STARTER, Arrays.asList("Clash")));
+
+        assertEquals("Floors 0-0 (Act 1), gold 99.\n", summarizer.getSummary());
+    }
+
+    private static RunSnapshot snapshot(int floor, List<String> deck, List<String> offered) {
+        return new RunSnapshot(floor, 1, 70, 80, 99, "MonsterRoom", "Cultist", deck,
+                new ArrayList<String>(), offered);
+    }
+
+    private static List<String> deck(String... cards) {
+        return Arrays.asList(cards);
+    }
+}
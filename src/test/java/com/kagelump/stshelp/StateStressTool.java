@@ -0,0 +1,97 @@
+package com.kagelump.stshelp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Profiles the extraction and prompt pipeline on synthetic large states,
+ * without launching the game:
+ * <pre>
+ *   java -cp target/test-classes:target/classes:gson.jar:lib/* com.kagelump.stshelp.StateStressTool [seed] [iterations] [index.idx]
+ * </pre>
+ * Reports average time per stage: extraction, serialization, parsing,
+ * prompt building, choice ranking (if an index is given) and run summary
+ * updates across simulated floors.
+ */
+public class StateStressTool {
+
+    private static final String[] SCREENS = {null, "card_reward", "shop", "boss_relic"};
+
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42L;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        ChoiceAdvisor advisor = args.length > 2
+                ? new ChoiceAdvisor(KnowledgeIndex.map(new File(args[2])))
+                : null;
+
+        Gson gson = new Gson();
+        LLMClient llmClient = new LLMClient(null, null, null);
+        SyntheticGameStateSource source = SyntheticGameStateSource.large(seed);
+        GameStateExtractor extractor = new GameStateExtractor(source);
+
+        long extractNanos = 0;
+        long serializeNanos = 0;
+        long parseNanos = 0;
+        long promptNanos = 0;
+        long adviseNanos = 0;
+        long maxJsonChars = 0;
+        long maxPromptChars = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            source.setChoiceScreen(SCREENS[i % SCREENS.length]);
+
+            long t0 = System.nanoTime();
+            JsonObject state = extractor.extractStateJson();
+            long t1 = System.nanoTime();
+            String json = state.toString();
+            long t2 = System.nanoTime();
+            JsonObject parsed = gson.fromJson(json, JsonObject.class);
+            long t3 = System.nanoTime();
+            String prompt = llmClient.createPrompt(parsed);
+            long t4 = System.nanoTime();
+            if (advisor != null) {
+                advisor.advise(parsed);
+            }
+            long t5 = System.nanoTime();
+
+            extractNanos += t1 - t0;
+            serializeNanos += t2 - t1;
+            parseNanos += t3 - t2;
+            promptNanos += t4 - t3;
+            adviseNanos += t5 - t4;
+            maxJsonChars = Math.max(maxJsonChars, json.length());
+            maxPromptChars = Math.max(maxPromptChars, prompt.length());
+        }
+
+        System.out.println("Seed " + seed + ", " + iterations + " iterations (large state)");
+        report("extract", extractNanos, iterations);
+        report("serialize", serializeNanos, iterations);
+        report("parse", parseNanos, iterations);
+        report("createPrompt", promptNanos, iterations);
+        if (advisor != null) {
+            report("choice ranking", adviseNanos, iterations);
+        }
+        System.out.println("Max JSON " + maxJsonChars + " chars, max prompt " + maxPromptChars + " chars");
+
+        // Simulate a long run; updates execute inline so costs are measured directly
+        RunSummarizer summarizer = new RunSummarizer(Runnable::run);
+        source.setChoiceScreen(null);
+        for (int floor = 0; floor < 55; floor++) {
+            List<String> offered = new ArrayList<>();
+            for (GameStateSource.Card card : source.getOfferedCards()) {
+                offered.add(card.displayName());
+            }
+            summarizer.onFloorChange(RunSnapshot.capture(source, offered));
+            source.nextFloor();
+        }
+        System.out.println(summarizer.getStats());
+    }
+
+    private static void report(String stage, long totalNanos, int iterations) {
+        System.out.println(String.format("  %-15s %8.1f us", stage, totalNanos / 1000.0 / iterations));
+    }
+}
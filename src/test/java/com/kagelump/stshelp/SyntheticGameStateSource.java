@@ -0,0 +1,294 @@
+package com.kagelump.stshelp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded, deterministic GameStateSource for exercising the extraction and
+ * prompt pipeline without the game. The same seed and scale always produce
+ * the same states, including across {@link #nextFloor()} calls.
+ * Card and relic IDs are drawn from real Ironclad/shared ones so knowledge
+ * index lookups hit; larger scales pad with numbered synthetic entries.
+ */
+public class SyntheticGameStateSource implements GameStateSource {
+
+    private static final String[][] CARD_POOL = {
+        {"Strike_R", "Strike"}, {"Defend_R", "Defend"}, {"Bash", "Bash"},
+        {"Offering", "Offering"}, {"Demon Form", "Demon Form"}, {"Limit Break", "Limit Break"},
+        {"Inflame", "Inflame"}, {"Heavy Blade", "Heavy Blade"}, {"Whirlwind", "Whirlwind"},
+        {"Corruption", "Corruption"}, {"Feel No Pain", "Feel No Pain"}, {"Dark Embrace", "Dark Embrace"},
+        {"Second Wind", "Second Wind"}, {"Barricade", "Barricade"}, {"Shrug It Off", "Shrug It Off"},
+        {"Pommel Strike", "Pommel Strike"}, {"Battle Trance", "Battle Trance"}, {"Shockwave", "Shockwave"},
+        {"Uppercut", "Uppercut"}, {"Carnage", "Carnage"}, {"Feed", "Feed"}, {"Clash", "Clash"},
+        {"Apotheosis", "Apotheosis"}, {"Master of Strategy", "Master of Strategy"}, {"Madness", "Madness"}
+    };
+    private static final String[] RELIC_POOL = {
+        "Burning Blood", "Dead Branch", "Snecko Eye", "Runic Pyramid", "Ectoplasm", "Sozu",
+        "Coffee Dripper", "Fusion Hammer", "Philosopher's Stone", "Velvet Choker", "Cursed Key",
+        "Busted Crown", "Black Star", "Pandora's Box", "Tiny House", "Calling Bell", "Astrolabe",
+        "Empty Cage", "Runic Dome", "SlaversCollar", "Shuriken", "Kunai", "Pen Nib",
+        "Bag of Preparation", "Black Blood", "Vajra", "Anchor", "Lantern"
+    };
+    private static final String[] ENEMY_POOL = {
+        "Gremlin Nob", "Lagavulin", "Sentry", "Jaw Worm", "Cultist", "Spheric Guardian",
+        "Byrd", "Chosen", "Snake Plant", "Darkling", "Nemesis", "Reptomancer"
+    };
+    private static final String[] INTENT_POOL = {
+        "ATTACK", "ATTACK_BUFF", "ATTACK_DEBUFF", "ATTACK_DEFEND", "DEFEND", "BUFF", "DEBUFF", "STRONG_DEBUFF", "UNKNOWN"
+    };
+    private static final String[] POWER_POOL = {
+        "Strength", "Vulnerable", "Weak", "Artifact", "Metallicize", "Ritual",
+        "Plated Armor", "Thorns", "Curl Up", "Angry", "Intangible", "Regen"
+    };
+    private static final String[] ROOM_POOL = {
+        "MonsterRoom", "MonsterRoom", "MonsterRoom", "EventRoom", "EventRoom",
+        "RestRoom", "ShopRoom", "TreasureRoom", "MonsterRoomElite"
+    };
+
+    private final Random random;
+    private final int enemyCount;
+    private final int maxPowersPerEnemy;
+
+    private int floor = 1;
+    private int act = 1;
+    private final int maxHp = 80;
+    private int currentHp = 80;
+    private int gold = 99;
+    private final int energy = 3;
+    private String roomType;
+    private String lastEncounter;
+    private String choiceScreen;
+    private Object cardReward;
+    private final List<Card> deck = new ArrayList<>();
+    private final List<Relic> relics = new ArrayList<>();
+    private final List<Card> hand = new ArrayList<>();
+    private final List<Enemy> enemies = new ArrayList<>();
+    private final List<Card> offeredCards = new ArrayList<>();
+    private final List<Relic> offeredRelics = new ArrayList<>();
+
+    public SyntheticGameStateSource(long seed, int deckSize, int relicCount,
+                                    int enemyCount, int handSize, int maxPowersPerEnemy) {
+        this.random = new Random(seed);
+        this.enemyCount = enemyCount;
+        this.maxPowersPerEnemy = maxPowersPerEnemy;
+
+        for (int i = 0; i < deckSize; i++) {
+            deck.add(randomCard(i, -1));
+        }
+        for (int i = 0; i < relicCount; i++) {
+            relics.add(i < RELIC_POOL.length
+                    ? new Relic(RELIC_POOL[i], RELIC_POOL[i])
+                    : new Relic("Synthetic Relic " + i, "Synthetic Relic " + i));
+        }
+        for (int i = 0; i < handSize; i++) {
+            hand.add(deck.isEmpty() ? randomCard(i, -1) : deck.get(random.nextInt(deck.size())));
+        }
+        this.roomType = enemyCount > 0 ? "MonsterRoom" : "EventRoom";
+        generateEnemies();
+    }
+
+    /** A typical mid-run combat state. */
+    public static SyntheticGameStateSource normal(long seed) {
+        return new SyntheticGameStateSource(seed, 25, 6, 2, 5, 2);
+    }
+
+    /**
+     * A state well beyond normal play: 120-card deck, 35 relics,
+     * 5 enemies with 1-4 powers each and a 12-card hand.
+     */
+    public static SyntheticGameStateSource large(long seed) {
+        return new SyntheticGameStateSource(seed, 120, 35, 5, 12, 4);
+    }
+
+    /**
+     * Open a choice screen ("card_reward", "shop" or "boss_relic") with
+     * generated offers, or close it with null.
+     */
+    public void setChoiceScreen(String screen) {
+        this.choiceScreen = screen;
+        offeredCards.clear();
+        offeredRelics.clear();
+        cardReward = null;
+        if ("card_reward".equals(screen)) {
+            cardReward = new Object();
+            for (int i = 0; i < 3; i++) {
+                offeredCards.add(randomCard(i, -1));
+            }
+        } else if ("shop".equals(screen)) {
+            for (int i = 0; i < 7; i++) {
+                offeredCards.add(randomCard(i, 45 + random.nextInt(140)));
+            }
+        } else if ("boss_relic".equals(screen)) {
+            for (int i = 0; i < 3; i++) {
+                String id = RELIC_POOL[random.nextInt(RELIC_POOL.length)];
+                offeredRelics.add(new Relic(id, id));
+            }
+        }
+    }
+
+    /**
+     * Advance to the next floor: HP drifts, cards and relics are picked up
+     * and a new room is entered, so successive snapshots have realistic diffs.
+     */
+    public void nextFloor() {
+        if (roomType.startsWith("MonsterRoom") && !enemies.isEmpty()) {
+            lastEncounter = enemies.get(0).name;
+        }
+
+        floor++;
+        act = 1 + floor / 17;
+        currentHp = Math.max(1, Math.min(maxHp, currentHp - 15 + random.nextInt(21)));
+        gold += random.nextInt(30);
+        if (random.nextBoolean()) {
+            deck.add(randomCard(deck.size(), -1));
+        }
+        if (random.nextInt(4) == 0 && !deck.isEmpty()) {
+            int index = random.nextInt(deck.size());
+            Card card = deck.get(index);
+            deck.set(index, new Card(card.id, card.name, true, -1));
+        }
+        if (floor % 5 == 0) {
+            relics.add(new Relic("Synthetic Relic F" + floor, "Synthetic Relic F" + floor));
+        }
+        roomType = floor % 17 == 16 ? "MonsterRoomBoss" : ROOM_POOL[random.nextInt(ROOM_POOL.length)];
+        generateEnemies();
+    }
+
+    private void generateEnemies() {
+        enemies.clear();
+        for (int i = 0; i < enemyCount; i++) {
+            int max = 20 + random.nextInt(280);
+            String intent = INTENT_POOL[random.nextInt(INTENT_POOL.length)];
+            int damage = intent.startsWith("ATTACK") ? 5 + random.nextInt(30) : 0;
+            List<String> powers = new ArrayList<>();
+            int powerCount = maxPowersPerEnemy > 0 ? 1 + random.nextInt(maxPowersPerEnemy) : 0;
+            for (int p = 0; p < powerCount; p++) {
+                powers.add(POWER_POOL[random.nextInt(POWER_POOL.length)] + " " + (1 + random.nextInt(10)));
+            }
+            enemies.add(new Enemy(ENEMY_POOL[random.nextInt(ENEMY_POOL.length)],
+                    1 + random.nextInt(max), max, intent, damage, powers));
+        }
+    }
+
+    private Card randomCard(int index, int price) {
+        boolean upgraded = random.nextInt(3) == 0;
+        // Mostly real cards, with some padding so large decks aren't all duplicates
+        if (random.nextInt(5) == 0) {
+            return new Card("Synthetic Card " + index, "Synthetic Card " + index, upgraded, price);
+        }
+        String[] card = CARD_POOL[random.nextInt(CARD_POOL.length)];
+        return new Card(card[0], card[1], upgraded, price);
+    }
+
+    @Override
+    public boolean hasActiveRun() {
+        return true;
+    }
+
+    @Override
+    public String getCharacterName() {
+        return "The Ironclad";
+    }
+
+    @Override
+    public String getCharacterClass() {
+        return "IRONCLAD";
+    }
+
+    @Override
+    public int getCurrentHp() {
+        return currentHp;
+    }
+
+    @Override
+    public int getMaxHp() {
+        return maxHp;
+    }
+
+    @Override
+    public int getEnergy() {
+        return energy;
+    }
+
+    @Override
+    public int getGold() {
+        return gold;
+    }
+
+    @Override
+    public int getFloor() {
+        return floor;
+    }
+
+    @Override
+    public int getAct() {
+        return act;
+    }
+
+    @Override
+    public String getRoomType() {
+        return roomType;
+    }
+
+    @Override
+    public String getLastEncounter() {
+        return lastEncounter;
+    }
+
+    @Override
+    public List<Card> getDeck() {
+        return Collections.unmodifiableList(deck);
+    }
+
+    @Override
+    public List<Relic> getRelics() {
+        return Collections.unmodifiableList(relics);
+    }
+
+    @Override
+    public boolean isInCombat() {
+        return choiceScreen == null && roomType.startsWith("MonsterRoom") && !enemies.isEmpty();
+    }
+
+    @Override
+    public List<Card> getHand() {
+        return Collections.unmodifiableList(hand);
+    }
+
+    @Override
+    public int getDrawPileSize() {
+        return Math.max(0, deck.size() - hand.size());
+    }
+
+    @Override
+    public int getDiscardPileSize() {
+        return 0;
+    }
+
+    @Override
+    public List<Enemy> getEnemies() {
+        return Collections.unmodifiableList(enemies);
+    }
+
+    @Override
+    public String getChoiceScreen() {
+        return choiceScreen;
+    }
+
+    @Override
+    public List<Card> getOfferedCards() {
+        return Collections.unmodifiableList(offeredCards);
+    }
+
+    @Override
+    public Object getCardReward() {
+        return cardReward;
+    }
+
+    @Override
+    public List<Relic> getOfferedRelics() {
+        return Collections.unmodifiableList(offeredRelics);
+    }
+}